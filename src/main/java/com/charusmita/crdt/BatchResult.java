@@ -0,0 +1,59 @@
+package com.charusmita.crdt;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A BatchResult is the per-element outcome of a batch write on {@link com.charusmita.crdt.LastWriterWinsSet}.
+ * For every distinct element of the batch it holds the value the matching single-element operation would have
+ * returned, ie. the timestamp if the entry was inserted or updated, or -1 if a more recent entry already existed.
+ *
+ * @param <T> Datatype of the elements of the batch
+ */
+public class BatchResult<T> {
+
+    private final Map<T, Integer> addOutcomes;
+    private final Map<T, Integer> removeOutcomes;
+
+    public BatchResult(Map<T, Integer> addOutcomes, Map<T, Integer> removeOutcomes) {
+        this.addOutcomes = Collections.unmodifiableMap(addOutcomes);
+        this.removeOutcomes = Collections.unmodifiableMap(removeOutcomes);
+    }
+
+    /**
+     * @return the outcome per element written to the Add Set ZA
+     */
+    public Map<T, Integer> getAddOutcomes() {
+        return addOutcomes;
+    }
+
+    /**
+     * @return the outcome per element written to the Remove Set ZR
+     */
+    public Map<T, Integer> getRemoveOutcomes() {
+        return removeOutcomes;
+    }
+
+    /**
+     * @return the number of entries which were inserted or updated in ZA and ZR
+     */
+    public int getAppliedCount() {
+        return count(addOutcomes, true) + count(removeOutcomes, true);
+    }
+
+    /**
+     * @return the number of entries which were skipped because a more recent entry already existed
+     */
+    public int getSkippedCount() {
+        return count(addOutcomes, false) + count(removeOutcomes, false);
+    }
+
+    private static <T> int count(Map<T, Integer> outcomes, boolean applied) {
+        int count = 0;
+        for (int outcome : outcomes.values()) {
+            if ((outcome != -1) == applied)
+                count++;
+        }
+        return count;
+    }
+}
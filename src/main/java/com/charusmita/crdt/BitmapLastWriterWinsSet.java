@@ -0,0 +1,273 @@
+package com.charusmita.crdt;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * BitmapLastWriterWinsSet is a Last-Writer-Wins set of int elements for dense integer domains.
+ * <p/>
+ * The elements present in the set are kept in a {@link com.charusmita.crdt.CompressedBitmap}, updated on every
+ * add and remove, so that {@link #getAllElements()}, {@link #cardinality()} and {@link #forEachElement(IntConsumer)}
+ * cost bits instead of objects. The add and remove timestamps are kept in chunks of 65536 consecutive elements
+ * (the containers of the bitmap), as sorted parallel arrays for sparse chunks and as plain int arrays indexed by
+ * the low 16 bits once a chunk holds more than 4096 elements.
+ * <p/>
+ * {@link Integer#MIN_VALUE} marks a missing timestamp in the chunks, so it cannot be used as timestamp.
+ */
+public class BitmapLastWriterWinsSet implements ZSet<Integer>, LiveView<Integer> {
+
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    private final CompressedBitmap live = new CompressedBitmap();
+    private char[] chunkKeys = new char[4];
+    private TimestampChunk[] chunks = new TimestampChunk[4];
+    private int chunkCount;
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public synchronized BitmapLastWriterWinsSet newSet() {
+        live.clear();
+        chunkKeys = new char[4];
+        chunks = new TimestampChunk[4];
+        chunkCount = 0;
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int add(Integer element, int timestamp) {
+        checkTimestamp(timestamp);
+        TimestampChunk chunk = chunk(element, true);
+        char low = (char) element.intValue();
+        int current = chunk.getAdd(low);
+        if (current != ABSENT && current >= timestamp)
+            return -1;
+        chunk.set(low, timestamp, chunk.getRemove(low));
+        updateLive(element, timestamp, chunk.getRemove(low));
+        return timestamp;
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int remove(Integer element, int timestamp) {
+        checkTimestamp(timestamp);
+        TimestampChunk chunk = chunk(element, true);
+        char low = (char) element.intValue();
+        int current = chunk.getRemove(low);
+        if (current != ABSENT && current >= timestamp)
+            return -1;
+        chunk.set(low, chunk.getAdd(low), timestamp);
+        updateLive(element, chunk.getAdd(low), timestamp);
+        return timestamp;
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public synchronized boolean exists(Integer element) {
+        TimestampChunk chunk = chunk(element, false);
+        if (chunk == null)
+            return false;
+        char low = (char) element.intValue();
+        int addTimestamp = chunk.getAdd(low);
+        int removeTimestamp = chunk.getRemove(low);
+        if (addTimestamp != ABSENT && removeTimestamp != ABSENT) {
+            return addTimestamp > removeTimestamp;
+        }
+        return false;
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     * <p/>
+     * The returned Set is a read-only view over a copy of the bitmap of present elements. Its size and
+     * contains cost no allocation, elements are only boxed while iterating.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public synchronized Set<Integer> getAllElements() {
+        return live.copy().asSet();
+    }
+
+    /**
+     * @return the number of elements present in the set
+     */
+    public synchronized long cardinality() {
+        return live.cardinality();
+    }
+
+    /**
+     * Calls the action for every element present in the set, in unsigned order, without boxing
+     *
+     * @param action Action to be called with each element
+     */
+    public synchronized void forEachElement(IntConsumer action) {
+        live.forEach(action);
+    }
+
+    /**
+     * @return a copy of the bitmap of the elements present in the set
+     */
+    public synchronized CompressedBitmap getElementBitmap() {
+        return live.copy();
+    }
+
+    @Override
+    public synchronized boolean isLive(Integer element) {
+        return live.contains(element);
+    }
+
+    @Override
+    public long estimatedLiveCount() {
+        return cardinality();
+    }
+
+    /**
+     * Calls the action for every live element, on a copy of the bitmap taken under the lock
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super Integer> action) {
+        getElementBitmap().forEach(action::accept);
+    }
+
+    private static void checkTimestamp(int timestamp) {
+        if (timestamp == ABSENT)
+            throw new IllegalArgumentException("Integer.MIN_VALUE is reserved and cannot be used as timestamp");
+    }
+
+    private void updateLive(int element, int addTimestamp, int removeTimestamp) {
+        if (addTimestamp != ABSENT && (removeTimestamp == ABSENT || addTimestamp > removeTimestamp))
+            live.add(element);
+        else
+            live.remove(element);
+    }
+
+    private TimestampChunk chunk(int element, boolean create) {
+        char key = (char) (element >>> 16);
+        int i = Arrays.binarySearch(chunkKeys, 0, chunkCount, key);
+        if (i >= 0)
+            return chunks[i];
+        if (!create)
+            return null;
+        i = -i - 1;
+        if (chunkCount == chunkKeys.length) {
+            chunkKeys = Arrays.copyOf(chunkKeys, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(chunkKeys, i, chunkKeys, i + 1, chunkCount - i);
+        System.arraycopy(chunks, i, chunks, i + 1, chunkCount - i);
+        chunkKeys[i] = key;
+        chunks[i] = new TimestampChunk();
+        chunkCount++;
+        return chunks[i];
+    }
+
+    /**
+     * Add and remove timestamps of the 65536 elements sharing the same high 16 bits. Sparse chunks keep sorted
+     * low bits with parallel timestamp arrays, dense chunks keep two arrays indexed by the low bits.
+     */
+    private static final class TimestampChunk {
+
+        private char[] lows = new char[4];
+        private int[] adds = new int[4];
+        private int[] removes = new int[4];
+        private int count;
+        private boolean dense;
+
+        int getAdd(char low) {
+            if (dense)
+                return adds[low];
+            int i = Arrays.binarySearch(lows, 0, count, low);
+            return i >= 0 ? adds[i] : ABSENT;
+        }
+
+        int getRemove(char low) {
+            if (dense)
+                return removes[low];
+            int i = Arrays.binarySearch(lows, 0, count, low);
+            return i >= 0 ? removes[i] : ABSENT;
+        }
+
+        void set(char low, int addTimestamp, int removeTimestamp) {
+            if (dense) {
+                adds[low] = addTimestamp;
+                removes[low] = removeTimestamp;
+                return;
+            }
+            int i = Arrays.binarySearch(lows, 0, count, low);
+            if (i < 0) {
+                if (count == CompressedBitmap.ARRAY_MAX) {
+                    toDense();
+                    set(low, addTimestamp, removeTimestamp);
+                    return;
+                }
+                i = -i - 1;
+                if (count == lows.length) {
+                    lows = Arrays.copyOf(lows, count * 2);
+                    adds = Arrays.copyOf(adds, count * 2);
+                    removes = Arrays.copyOf(removes, count * 2);
+                }
+                System.arraycopy(lows, i, lows, i + 1, count - i);
+                System.arraycopy(adds, i, adds, i + 1, count - i);
+                System.arraycopy(removes, i, removes, i + 1, count - i);
+                lows[i] = low;
+                count++;
+            }
+            adds[i] = addTimestamp;
+            removes[i] = removeTimestamp;
+        }
+
+        private void toDense() {
+            int[] denseAdds = new int[1 << 16];
+            int[] denseRemoves = new int[1 << 16];
+            Arrays.fill(denseAdds, ABSENT);
+            Arrays.fill(denseRemoves, ABSENT);
+            for (int i = 0; i < count; i++) {
+                denseAdds[lows[i]] = adds[i];
+                denseRemoves[lows[i]] = removes[i];
+            }
+            lows = null;
+            adds = denseAdds;
+            removes = denseRemoves;
+            dense = true;
+        }
+    }
+}
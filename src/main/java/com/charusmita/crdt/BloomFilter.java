@@ -0,0 +1,93 @@
+package com.charusmita.crdt;
+
+import java.util.BitSet;
+
+/**
+ * BloomFilter is an in-memory {@link com.charusmita.crdt.MembershipFilter} backed by a bit array.
+ * The size of the bit array and the number of hash functions are derived from the expected number of
+ * insertions and the wanted false positive probability.
+ * <p/>
+ * The k bit positions of an element are computed with double hashing over a 64-bit mix of
+ * {@link Object#hashCode()}, so element types must have a well distributed hashCode.
+ * <p/>
+ * The filter only grows, it is rebuilt by calling {@link #clear()} and putting the elements again.
+ *
+ * @param <T> Datatype of the element to be tracked by the filter
+ */
+public class BloomFilter<T> implements MembershipFilter<T> {
+
+    private final BitSet bits;
+    private final int size;
+    private final int hashFunctions;
+    private final double falsePositiveProbability;
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0)
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1)
+            throw new IllegalArgumentException("falsePositiveProbability must be in (0, 1): " + falsePositiveProbability);
+
+        long optimalSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability)
+                / (Math.log(2) * Math.log(2)));
+        this.size = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 1, optimalSize));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) this.size / expectedInsertions * Math.log(2)));
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bits = new BitSet(this.size);
+    }
+
+    @Override
+    public synchronized void put(T element) {
+        long hash = mix(element.hashCode());
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            bits.set(index(hash1 + i * hash2));
+        }
+    }
+
+    @Override
+    public synchronized boolean mightContain(T element) {
+        long hash = mix(element.hashCode());
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!bits.get(index(hash1 + i * hash2)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        bits.clear();
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % size;
+    }
+
+    /**
+     * Finalization step of MurmurHash3 (64-bit), spreads the bits of the element hashCode
+     */
+    private static long mix(int hashCode) {
+        long h = hashCode;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
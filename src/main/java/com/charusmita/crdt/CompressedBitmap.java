@@ -0,0 +1,516 @@
+package com.charusmita.crdt;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * CompressedBitmap is a set of ints organized like a Roaring bitmap. The high 16 bits of a value select a
+ * container, kept in a sorted array, and the container stores the low 16 bits either as a sorted array of chars
+ * (up to 4096 values, 2 bytes per value) or as a bitmap of 65536 bits (8 KB), whichever is smaller.
+ * <p/>
+ * Values are iterated in unsigned order. {@link #and}, {@link #or} and {@link #andNot} combine two bitmaps
+ * container by container, with word-wise operations between bitmap containers. The bitmap is not thread safe.
+ */
+public class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private long cardinality;
+
+    public CompressedBitmap() {
+    }
+
+    private CompressedBitmap(CompressedBitmap other) {
+        this.keys = Arrays.copyOf(other.keys, Math.max(4, other.size));
+        this.containers = new Container[this.keys.length];
+        for (int i = 0; i < other.size; i++) {
+            this.containers[i] = other.containers[i].copy();
+        }
+        this.size = other.size;
+        this.cardinality = other.cardinality;
+    }
+
+    /**
+     * @param value Value to be added
+     * @return true if the value was not in the bitmap before
+     */
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int i = find(high);
+        if (i >= 0) {
+            if (containers[i].contains(low))
+                return false;
+            containers[i] = containers[i].add(low);
+        } else {
+            i = -i - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(containers, i, containers, i + 1, size - i);
+            keys[i] = high;
+            containers[i] = new ArrayContainer().add(low);
+            size++;
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * @param value Value to be removed
+     * @return true if the value was in the bitmap
+     */
+    public boolean remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0 || !containers[i].contains((char) value))
+            return false;
+        containers[i] = containers[i].remove((char) value);
+        if (containers[i].cardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+        cardinality--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public void clear() {
+        keys = new char[4];
+        containers = new Container[4];
+        size = 0;
+        cardinality = 0;
+    }
+
+    /**
+     * @return a deep copy of the bitmap
+     */
+    public CompressedBitmap copy() {
+        return new CompressedBitmap(this);
+    }
+
+    /**
+     * Calls the action for every value, in unsigned order
+     *
+     * @param action Action to be called with each value
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Container container = containers[i];
+            for (int low = container.next(0); low >= 0; low = low < 0xffff ? container.next(low + 1) : -1) {
+                action.accept(high | low);
+            }
+        }
+    }
+
+    /**
+     * @return an iterator over the values, in unsigned order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container = 0;
+            private int low = size > 0 ? containers[0].next(0) : -1;
+
+            @Override
+            public boolean hasNext() {
+                return container < size && low >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                int value = (keys[container] << 16) | low;
+                low = low < 0xffff ? containers[container].next(low + 1) : -1;
+                while (low < 0 && ++container < size) {
+                    low = containers[container].next(0);
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @return a read-only Set view of the bitmap, whose size and contains do not allocate
+     */
+    public Set<Integer> asSet() {
+        return new AbstractSet<Integer>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Integer && CompressedBitmap.this.contains((Integer) o);
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(Integer.MAX_VALUE, cardinality);
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                return CompressedBitmap.this.iterator();
+            }
+        };
+    }
+
+    /**
+     * @return a new bitmap with the values present in both bitmaps
+     */
+    public static CompressedBitmap and(CompressedBitmap first, CompressedBitmap second) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                result.append(first.keys[i], and(first.containers[i], second.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the values present in any of the bitmaps
+     */
+    public static CompressedBitmap or(CompressedBitmap first, CompressedBitmap second) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            if (j == second.size || (i < first.size && first.keys[i] < second.keys[j])) {
+                result.append(first.keys[i], first.containers[i].copy());
+                i++;
+            } else if (i == first.size || first.keys[i] > second.keys[j]) {
+                result.append(second.keys[j], second.containers[j].copy());
+                j++;
+            } else {
+                long[] words = first.containers[i].toWords();
+                long[] other = second.containers[j].toWords();
+                for (int w = 0; w < words.length; w++) {
+                    words[w] |= other[w];
+                }
+                result.append(first.keys[i], fromWords(words));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the values of the first bitmap which are not in the second one
+     */
+    public static CompressedBitmap andNot(CompressedBitmap first, CompressedBitmap second) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < first.size; i++) {
+            while (j < second.size && second.keys[j] < first.keys[i]) {
+                j++;
+            }
+            if (j < second.size && second.keys[j] == first.keys[i])
+                result.append(first.keys[i], andNot(first.containers[i], second.containers[j]));
+            else
+                result.append(first.keys[i], first.containers[i].copy());
+        }
+        return result;
+    }
+
+    /**
+     * @return the approximate heap used by the containers, in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Appends a container with a key greater than all keys, ignoring empty containers
+     */
+    private void append(char key, Container container) {
+        if (container.cardinality() == 0)
+            return;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        keys[size] = key;
+        containers[size++] = container;
+        cardinality += container.cardinality();
+    }
+
+    private static Container and(Container first, Container second) {
+        if (first instanceof BitmapContainer && second instanceof BitmapContainer) {
+            long[] words = ((BitmapContainer) first).words.clone();
+            long[] other = ((BitmapContainer) second).words;
+            for (int w = 0; w < words.length; w++) {
+                words[w] &= other[w];
+            }
+            return fromWords(words);
+        }
+        Container small = first.cardinality() <= second.cardinality() ? first : second;
+        Container large = small == first ? second : first;
+        ArrayContainer result = new ArrayContainer();
+        for (int low = small.next(0); low >= 0; low = low < 0xffff ? small.next(low + 1) : -1) {
+            if (large.contains((char) low))
+                result.add((char) low);
+        }
+        return result;
+    }
+
+    private static Container andNot(Container first, Container second) {
+        if (first instanceof ArrayContainer) {
+            ArrayContainer result = new ArrayContainer();
+            for (int low = first.next(0); low >= 0; low = low < 0xffff ? first.next(low + 1) : -1) {
+                if (!second.contains((char) low))
+                    result.add((char) low);
+            }
+            return result;
+        }
+        long[] words = first.toWords();
+        long[] other = second.toWords();
+        for (int w = 0; w < words.length; w++) {
+            words[w] &= ~other[w];
+        }
+        return fromWords(words);
+    }
+
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+        return cardinality > ARRAY_MAX ? bitmap : bitmap.toArray();
+    }
+
+    private interface Container {
+
+        boolean contains(char low);
+
+        Container add(char low);
+
+        Container remove(char low);
+
+        int cardinality();
+
+        /**
+         * @return the smallest value not less than from, or -1 if there is none
+         */
+        int next(int from);
+
+        Container copy();
+
+        /**
+         * @return a new array of 1024 words with the bits of the container
+         */
+        long[] toWords();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0)
+                return this;
+            if (cardinality == ARRAY_MAX)
+                return toBitmap().add(low);
+            i = -i - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+                if (values.length > 16 && cardinality < values.length / 4)
+                    values = Arrays.copyOf(values, values.length / 2);
+            }
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int next(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (i < 0)
+                i = -i - 1;
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        public long[] toWords() {
+            long[] words = new long[1024];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return values.length * 2L;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            if (!contains(low)) {
+                words[low >>> 6] |= 1L << low;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            if (contains(low)) {
+                words[low >>> 6] &= ~(1L << low);
+                cardinality--;
+                if (cardinality < ARRAY_MAX)
+                    return toArray();
+            }
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int next(int from) {
+            int word = from >>> 6;
+            if (word >= words.length)
+                return -1;
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0)
+                    return word * 64 + Long.numberOfTrailingZeros(bits);
+                if (++word == words.length)
+                    return -1;
+                bits = words[word];
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return words.length * 8L;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int low = next(0); low >= 0; low = low < 0xffff ? next(low + 1) : -1) {
+                values[count++] = (char) low;
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
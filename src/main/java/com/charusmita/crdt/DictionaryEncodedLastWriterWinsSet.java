@@ -0,0 +1,286 @@
+package com.charusmita.crdt;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * DictionaryEncodedLastWriterWinsSet is a Last-Writer-Wins set which stores element IDs of an
+ * {@link com.charusmita.crdt.ElementDictionary} instead of the elements themselves.
+ * <p/>
+ * The Add Set ZA and the Remove Set ZR are kept in one open-addressing table from element ID to the timestamp of
+ * the element on each side, or {@link #ABSENT} if it has no entry on that side. An element value is therefore
+ * stored once in the dictionary, shared by both sides and by every set created with the same dictionary, and each
+ * element of the set costs three ints. The table only grows with the elements of the set, not with the IDs
+ * handed out by the dictionary to other sets.
+ *
+ * @param <T> Generic data type for element
+ */
+public class DictionaryEncodedLastWriterWinsSet<T> implements ZSet<T>, LiveView<T> {
+
+    /**
+     * Marks an element ID without an entry in ZA or ZR. It cannot be used as a timestamp
+     */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private final ElementDictionary<T> dictionary;
+    private TimestampTable table = new TimestampTable();
+
+    public DictionaryEncodedLastWriterWinsSet() {
+        this(new ElementDictionary<>());
+    }
+
+    public DictionaryEncodedLastWriterWinsSet(ElementDictionary<T> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public ElementDictionary<T> getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     * <p/>
+     * The dictionary is shared with other sets and is not cleared.
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public synchronized DictionaryEncodedLastWriterWinsSet<T> newSet() {
+        table = new TimestampTable();
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link #ABSENT}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int add(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        int slot = table.insert(dictionary.encode(element));
+        return table.update(slot, true, timestamp);
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link #ABSENT}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int remove(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        int slot = table.insert(dictionary.encode(element));
+        return table.update(slot, false, timestamp);
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     * <p/>
+     * Elements unknown to the dictionary are rejected without touching the set.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public synchronized boolean exists(T element) {
+        int slot = slotOf(element);
+        if (slot < 0)
+            return false;
+        int addTimestamp = table.adds[slot];
+        int removeTimestamp = table.removes[slot];
+        if (addTimestamp != ABSENT && removeTimestamp != ABSENT) {
+            return addTimestamp > removeTimestamp;
+        }
+        return false;
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public synchronized Set<T> getAllElements() {
+        Set<T> elements = new HashSet<>();
+        table.forEachLive(id -> elements.add(dictionary.decode(id)));
+        return elements;
+    }
+
+    @Override
+    public synchronized boolean isLive(T element) {
+        int slot = slotOf(element);
+        return slot >= 0 && TimestampTable.isLive(table.adds[slot], table.removes[slot]);
+    }
+
+    @Override
+    public synchronized long estimatedLiveCount() {
+        return table.liveCount;
+    }
+
+    /**
+     * Calls the action for every live element, on a copy of the timestamp table taken under the lock
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super T> action) {
+        TimestampTable copy;
+        synchronized (this) {
+            copy = table.copy();
+        }
+        copy.forEachLive(id -> action.accept(dictionary.decode(id)));
+    }
+
+    private int slotOf(T element) {
+        int id = dictionary.lookup(element);
+        return id < 0 ? -1 : table.find(id);
+    }
+
+    private static void checkTimestamp(int timestamp) {
+        if (timestamp == ABSENT)
+            throw new IllegalArgumentException("Integer.MIN_VALUE is reserved and cannot be used as timestamp");
+    }
+
+    /**
+     * Open-addressing hash table with linear probing from element ID to its add and remove timestamps, kept in
+     * three parallel int arrays. Entries are never removed, {@link #newSet()} replaces the whole table. The number
+     * of live entries is maintained on every update.
+     */
+    private static final class TimestampTable {
+
+        private static final int EMPTY = -1;
+
+        int[] ids;
+        int[] adds;
+        int[] removes;
+        int size;
+        int liveCount;
+
+        TimestampTable() {
+            this(8);
+        }
+
+        private TimestampTable(int capacity) {
+            ids = new int[capacity];
+            adds = new int[capacity];
+            removes = new int[capacity];
+            Arrays.fill(ids, EMPTY);
+            Arrays.fill(adds, ABSENT);
+            Arrays.fill(removes, ABSENT);
+        }
+
+        /**
+         * @return the slot of the ID, or -1 if the ID has no entry
+         */
+        int find(int id) {
+            int mask = ids.length - 1;
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                if (ids[slot] == id)
+                    return slot;
+                if (ids[slot] == EMPTY)
+                    return -1;
+            }
+        }
+
+        /**
+         * @return the slot of the ID, inserting an entry without timestamps if the ID has none
+         */
+        int insert(int id) {
+            int mask = ids.length - 1;
+            int slot = hash(id) & mask;
+            while (ids[slot] != EMPTY) {
+                if (ids[slot] == id)
+                    return slot;
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 4 > ids.length * 3) {
+                grow();
+                return insert(id);
+            }
+            ids[slot] = id;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Sets the add or remove timestamp of the slot if it is more recent than the stored one
+         *
+         * @return the timestamp if it was set, otherwise -1
+         */
+        int update(int slot, boolean add, int timestamp) {
+            int[] timestamps = add ? adds : removes;
+            if (timestamps[slot] != ABSENT && timestamps[slot] >= timestamp)
+                return -1;
+            boolean wasLive = isLive(adds[slot], removes[slot]);
+            timestamps[slot] = timestamp;
+            boolean live = isLive(adds[slot], removes[slot]);
+            if (live != wasLive)
+                liveCount += live ? 1 : -1;
+            return timestamp;
+        }
+
+        void forEachLive(IntConsumer action) {
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] != EMPTY && isLive(adds[slot], removes[slot]))
+                    action.accept(ids[slot]);
+            }
+        }
+
+        TimestampTable copy() {
+            TimestampTable copy = new TimestampTable(0);
+            copy.ids = ids.clone();
+            copy.adds = adds.clone();
+            copy.removes = removes.clone();
+            copy.size = size;
+            copy.liveCount = liveCount;
+            return copy;
+        }
+
+        static boolean isLive(int addTimestamp, int removeTimestamp) {
+            return addTimestamp != ABSENT && (removeTimestamp == ABSENT || addTimestamp > removeTimestamp);
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            int[] oldAdds = adds;
+            int[] oldRemoves = removes;
+            TimestampTable grown = new TimestampTable(oldIds.length * 2);
+            for (int slot = 0; slot < oldIds.length; slot++) {
+                if (oldIds[slot] == EMPTY)
+                    continue;
+                int newSlot = grown.insert(oldIds[slot]);
+                grown.adds[newSlot] = oldAdds[slot];
+                grown.removes[newSlot] = oldRemoves[slot];
+            }
+            ids = grown.ids;
+            adds = grown.adds;
+            removes = grown.removes;
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.charusmita.crdt;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ElementDictionary maps element values to compact int IDs, assigned densely from 0 in order of first use.
+ * Each distinct value is stored once, however many sets, sides and replicas refer to it, and sets built on
+ * the dictionary compare elements by ID instead of by {@link Object#equals(Object)}.
+ * <p/>
+ * A dictionary is meant to be shared by all sets of a process over the same element domain. IDs are never
+ * released, so the dictionary grows with the number of distinct values seen.
+ *
+ * @param <T> Datatype of the element values
+ */
+public class ElementDictionary<T> {
+
+    private final ConcurrentHashMap<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[16];
+    private int size;
+
+    /**
+     * Returns the ID of the value, assigning the next free ID if the value has not been seen before
+     *
+     * @param value Element value to be encoded
+     * @return the ID of the value
+     */
+    public int encode(T value) {
+        Integer id = ids.get(value);
+        if (id != null)
+            return id;
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null)
+                return id;
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size] = value;
+            ids.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the ID of the value without assigning one
+     *
+     * @param value Element value to be looked up
+     * @return the ID of the value, or -1 if the value has never been encoded
+     */
+    public int lookup(T value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id ID returned by {@link #encode(Object)}
+     * @return the value of the ID
+     */
+    @SuppressWarnings("unchecked")
+    public T decode(int id) {
+        return (T) values[id];
+    }
+
+    /**
+     * Returns the canonical instance of the value, so that equal values share one object
+     *
+     * @param value Element value to be interned
+     * @return the instance stored in the dictionary
+     */
+    public T intern(T value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * @return the number of distinct values in the dictionary
+     */
+    public int size() {
+        return ids.size();
+    }
+}
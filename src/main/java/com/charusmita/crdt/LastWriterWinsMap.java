@@ -0,0 +1,115 @@
+package com.charusmita.crdt;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LastWriterWinsMap is the in-memory {@link com.charusmita.crdt.ZMap}. Each key maps to an immutable register
+ * holding the value, the timestamp and whether the last applied write was a remove. Writes replace the register
+ * of their key atomically, so get, put and remove are O(1).
+ * <p/>
+ * Puts of a key with the same timestamp are ordered by the value comparator, the natural ordering of the values by
+ * default, so every replica must use the same comparator.
+ *
+ * @param <K> Generic data type for key
+ * @param <V> Generic data type for value
+ */
+public class LastWriterWinsMap<K, V> implements ZMap<K, V> {
+
+    private final ConcurrentHashMap<K, Register<V>> registers = new ConcurrentHashMap<>();
+    private final Comparator<? super V> valueComparator;
+
+    /**
+     * Creates a map ordering puts with the same timestamp by the natural ordering of the values, which must be
+     * {@link Comparable}
+     */
+    @SuppressWarnings("unchecked")
+    public LastWriterWinsMap() {
+        this((Comparator<? super V>) Comparator.naturalOrder());
+    }
+
+    /**
+     * @param valueComparator Total order of the values deciding between puts of a key with the same timestamp
+     */
+    public LastWriterWinsMap(Comparator<? super V> valueComparator) {
+        this.valueComparator = valueComparator;
+    }
+
+    @Override
+    public LastWriterWinsMap<K, V> newMap() {
+        registers.clear();
+        return this;
+    }
+
+    @Override
+    public int put(K key, V value, int timestamp) {
+        boolean[] applied = new boolean[1];
+        registers.compute(key, (k, current) -> {
+            if (current != null && (current.timestamp > timestamp || (current.timestamp == timestamp
+                    && (current.removed || valueComparator.compare(current.value, value) >= 0))))
+                return current;
+            applied[0] = true;
+            return new Register<>(value, timestamp, false);
+        });
+        return applied[0] ? timestamp : -1;
+    }
+
+    @Override
+    public int remove(K key, int timestamp) {
+        boolean[] applied = new boolean[1];
+        registers.compute(key, (k, current) -> {
+            if (current != null && (current.timestamp > timestamp
+                    || (current.timestamp == timestamp && current.removed)))
+                return current;
+            applied[0] = true;
+            return new Register<>(null, timestamp, true);
+        });
+        return applied[0] ? timestamp : -1;
+    }
+
+    @Override
+    public V get(K key) {
+        Register<V> register = registers.get(key);
+        return register == null ? null : register.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Register<V> register = registers.get(key);
+        return register != null && !register.removed;
+    }
+
+    /**
+     * @param key Key whose timestamp is returned
+     * @return the timestamp of the last applied put or remove of the key, or -1 if the key was never written
+     */
+    public int getTimestamp(K key) {
+        Register<V> register = registers.get(key);
+        return register == null ? -1 : register.timestamp;
+    }
+
+    @Override
+    public Map<K, V> getAll() {
+        Map<K, V> all = new HashMap<>();
+        registers.forEach((key, register) -> {
+            if (!register.removed)
+                all.put(key, register.value);
+        });
+        return all;
+    }
+
+    private static final class Register<V> {
+
+        final V value;
+        final int timestamp;
+        final boolean removed;
+
+        Register(V value, int timestamp, boolean removed) {
+            this.value = value;
+            this.timestamp = timestamp;
+            this.removed = removed;
+        }
+    }
+}
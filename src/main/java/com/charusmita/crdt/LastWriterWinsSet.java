@@ -1,9 +1,14 @@
 package com.charusmita.crdt;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -12,9 +17,10 @@ import java.util.stream.Stream;
  *
  * @param <T> Generic data type for element
  */
-public class LastWriterWinsSet<T> implements ZSet<T> {
+public class LastWriterWinsSet<T> implements ZSet<T>, LiveView<T> {
     private final Set<Entry<T>> addSet;
     private final Set<Entry<T>> removeSet;
+    private final MembershipFilter<T> filter;
 
     public Set<Entry<T>> getAddSet() {
         return addSet;
@@ -24,14 +30,49 @@ public class LastWriterWinsSet<T> implements ZSet<T> {
         return removeSet;
     }
 
+    public MembershipFilter<T> getFilter() {
+        return filter;
+    }
+
     public LastWriterWinsSet() {
-        this.addSet = Collections.synchronizedSet(new HashSet<>());
-        this.removeSet = Collections.synchronizedSet(new HashSet<>());
+        this(Collections.synchronizedSet(new HashSet<>()), Collections.synchronizedSet(new HashSet<>()), null);
+    }
+
+    public LastWriterWinsSet(MembershipFilter<T> filter) {
+        this(Collections.synchronizedSet(new HashSet<>()), Collections.synchronizedSet(new HashSet<>()), filter);
     }
 
     public LastWriterWinsSet(Set<Entry<T>> addSet, Set<Entry<T>> removeSet) {
+        this(addSet, removeSet, null);
+    }
+
+    /**
+     * Creates the set over the given Add Set ZA and Remove Set ZR. If a {@link MembershipFilter} is given, it is
+     * rebuilt from the entries already present in ZA and maintained on every add afterwards.
+     *
+     * @param addSet    The Add Set ZA
+     * @param removeSet The Remove Set ZR
+     * @param filter    The filter used to short-circuit {@link #exists(Object)} for never added elements, or null
+     */
+    public LastWriterWinsSet(Set<Entry<T>> addSet, Set<Entry<T>> removeSet, MembershipFilter<T> filter) {
         this.addSet = addSet;
         this.removeSet = removeSet;
+        this.filter = filter;
+        rebuildFilter();
+    }
+
+    /**
+     * Clears the {@link MembershipFilter} (if any) and puts every element of the Add Set ZA into it again.
+     * Both happen under the lock of ZA, and writers put into the filter after writing ZA, so an element written
+     * meanwhile is either copied from ZA or put afterwards.
+     */
+    public void rebuildFilter() {
+        if (filter == null)
+            return;
+        synchronized (addSet) {
+            filter.clear();
+            addSet.forEach(entry -> filter.put(entry.getElement()));
+        }
     }
 
     /**
@@ -42,8 +83,12 @@ public class LastWriterWinsSet<T> implements ZSet<T> {
      */
     @Override
     public LastWriterWinsSet<T> newSet() {
-        if (!this.addSet.isEmpty())
-            this.addSet.clear();
+        synchronized (this.addSet) {
+            if (!this.addSet.isEmpty())
+                this.addSet.clear();
+            if (this.filter != null)
+                this.filter.clear();
+        }
         if (!this.removeSet.isEmpty())
             this.removeSet.clear();
         return this;
@@ -68,12 +113,14 @@ public class LastWriterWinsSet<T> implements ZSet<T> {
             if (first.get().getTimestamp() < timestamp) {
                 addSet.remove(first.get());
                 addSet.add(new Entry<>(element, timestamp));
+                putIntoFilter(element);
                 return timestamp;
             } else {
                 return -1;
             }
         }
         addSet.add(new Entry<>(element, timestamp));
+        putIntoFilter(element);
         return timestamp;
     }
 
@@ -105,18 +152,118 @@ public class LastWriterWinsSet<T> implements ZSet<T> {
         return timestamp;
     }
 
+    /**
+     * Applies a batch of adds to the Add Set ZA and removes to the Remove Set ZR. Each side is written under a
+     * single lock of its set, and the existing entries are indexed once per batch instead of being scanned once
+     * per element. Existing entries are updated in place.
+     *
+     * @param adds    Elements to be added, mapped to their timestamps
+     * @param removes Elements to be removed, mapped to their timestamps
+     * @return the outcome of every element, as {@link #add(Object, int)} and {@link #remove(Object, int)} return it
+     */
+    public BatchResult<T> applyBatch(Map<T, Integer> adds, Map<T, Integer> removes) {
+        Map<T, Integer> addOutcomes = mergeBatch(addSet, adds);
+        adds.keySet().forEach(this::putIntoFilter);
+        return new BatchResult<>(addOutcomes, mergeBatch(removeSet, removes));
+    }
+
+    /**
+     * Adds a batch of elements to the Add Set ZA, see {@link #applyBatch(Map, Map)}
+     *
+     * @param elements Elements to be added, mapped to their timestamps
+     * @return the outcome of every element
+     */
+    public BatchResult<T> addAll(Map<T, Integer> elements) {
+        return applyBatch(elements, Collections.emptyMap());
+    }
+
+    /**
+     * Adds a batch of elements to the Add Set ZA, see {@link #applyBatch(Map, Map)}.
+     * Elements occurring several times are collapsed to their most recent timestamp first.
+     *
+     * @param elements   Elements to be added
+     * @param timestamps Timestamp of the element at the same index
+     * @return the outcome of every distinct element
+     */
+    public BatchResult<T> addAll(T[] elements, int[] timestamps) {
+        return addAll(collapse(elements, timestamps));
+    }
+
+    /**
+     * Adds a batch of elements to the Remove Set ZR, see {@link #applyBatch(Map, Map)}
+     *
+     * @param elements Elements to be removed, mapped to their timestamps
+     * @return the outcome of every element
+     */
+    public BatchResult<T> removeAll(Map<T, Integer> elements) {
+        return applyBatch(Collections.emptyMap(), elements);
+    }
+
+    /**
+     * Adds a batch of elements to the Remove Set ZR, see {@link #applyBatch(Map, Map)}.
+     * Elements occurring several times are collapsed to their most recent timestamp first.
+     *
+     * @param elements   Elements to be removed
+     * @param timestamps Timestamp of the element at the same index
+     * @return the outcome of every distinct element
+     */
+    public BatchResult<T> removeAll(T[] elements, int[] timestamps) {
+        return removeAll(collapse(elements, timestamps));
+    }
+
+    private static <T> Map<T, Integer> collapse(T[] elements, int[] timestamps) {
+        if (elements.length != timestamps.length)
+            throw new IllegalArgumentException("elements and timestamps must have the same length");
+        Map<T, Integer> collapsed = new HashMap<>();
+        for (int i = 0; i < elements.length; i++) {
+            collapsed.merge(elements[i], timestamps[i], Math::max);
+        }
+        return collapsed;
+    }
+
+    private static <T> Map<T, Integer> mergeBatch(Set<Entry<T>> target, Map<T, Integer> batch) {
+        if (batch.isEmpty())
+            return Collections.emptyMap();
+        Map<T, Integer> outcomes = new HashMap<>();
+        synchronized (target) {
+            Map<T, Entry<T>> index = new HashMap<>();
+            for (Entry<T> entry : target) {
+                index.put(entry.getElement(), entry);
+            }
+            batch.forEach((element, timestamp) -> {
+                Entry<T> existing = index.get(element);
+                if (existing == null) {
+                    target.add(new Entry<>(element, timestamp));
+                    outcomes.put(element, timestamp);
+                } else if (existing.getTimestamp() < timestamp) {
+                    existing.setTimestamp(timestamp);
+                    outcomes.put(element, timestamp);
+                } else {
+                    outcomes.put(element, -1);
+                }
+            });
+        }
+        return outcomes;
+    }
+
     /**
      * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
      * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
      * element is in the set.
      * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
      * is not in the set.
+     * <p/>
+     * If a {@link MembershipFilter} is set, elements which were definitely never added are rejected
+     * without scanning ZA and ZR.
      *
      * @param element Element whose presence needs to be checked in the set
      * @return true if element is present according to above mentioned conditions otherwise false
      */
     @Override
     public boolean exists(T element) {
+        if (filter != null && !filter.mightContain(element))
+            return false;
+
         Optional<Entry<T>> elementInAddSet = addSet.stream()
                 .filter(x -> x.getElement().equals(element))
                 .findFirst();
@@ -160,4 +307,70 @@ public class LastWriterWinsSet<T> implements ZSet<T> {
                 .collect(Collectors.toSet());
 
     }
+
+    /**
+     * Scans ZA and ZR for the element, unless the {@link MembershipFilter} rejects it
+     */
+    @Override
+    public boolean isLive(T element) {
+        if (filter != null && !filter.mightContain(element))
+            return false;
+        Integer addTimestamp = timestampOf(addSet, element);
+        if (addTimestamp == null)
+            return false;
+        Integer removeTimestamp = timestampOf(removeSet, element);
+        return removeTimestamp == null || addTimestamp > removeTimestamp;
+    }
+
+    /**
+     * @return the size of ZA, which holds one entry per element ever added
+     */
+    @Override
+    public long estimatedLiveCount() {
+        return addSet.size();
+    }
+
+    /**
+     * Calls the action for every live element, on copies of ZA and of the timestamps of ZR taken under their locks
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super T> action) {
+        Map<T, Integer> removeTimestamps = new HashMap<>();
+        synchronized (removeSet) {
+            for (Entry<T> entry : removeSet) {
+                removeTimestamps.merge(entry.getElement(), entry.getTimestamp(), Math::max);
+            }
+        }
+        List<Entry<T>> addEntries = new ArrayList<>();
+        synchronized (addSet) {
+            for (Entry<T> entry : addSet) {
+                addEntries.add(new Entry<>(entry.getElement(), entry.getTimestamp()));
+            }
+        }
+        for (Entry<T> entry : addEntries) {
+            Integer removeTimestamp = removeTimestamps.get(entry.getElement());
+            if (removeTimestamp == null || entry.getTimestamp() > removeTimestamp)
+                action.accept(entry.getElement());
+        }
+    }
+
+    /**
+     * Puts the element into the {@link MembershipFilter} (if any), always after it was written to ZA
+     */
+    private void putIntoFilter(T element) {
+        if (filter != null)
+            filter.put(element);
+    }
+
+    private static <T> Integer timestampOf(Set<Entry<T>> entries, T element) {
+        synchronized (entries) {
+            for (Entry<T> entry : entries) {
+                if (entry.getElement().equals(element))
+                    return entry.getTimestamp();
+            }
+        }
+        return null;
+    }
 }
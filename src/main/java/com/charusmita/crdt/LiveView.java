@@ -0,0 +1,34 @@
+package com.charusmita.crdt;
+
+import java.util.function.Consumer;
+
+/**
+ * LiveView gives access to the live elements of a Last-Writer-Wins set without materializing them, that is the
+ * elements {@link ZSet#getAllElements()} would return: present in the Add Set ZA without also being present in the
+ * Remove Set ZR, or with a more recent timestamp in ZA than in ZR.
+ * <p/>
+ * It is used by {@link SetAlgebra} to iterate the smallest of several sets and probe the others.
+ *
+ * @param <T> Generic data type for element
+ */
+public interface LiveView<T> {
+
+    /**
+     * @param element Element to be checked
+     * @return true if the element is one of the elements returned by {@link ZSet#getAllElements()}
+     */
+    boolean isLive(T element);
+
+    /**
+     * @return an upper bound of the number of live elements, cheap to compute
+     */
+    long estimatedLiveCount();
+
+    /**
+     * Calls the action for every live element. The action is not called while holding a lock of the set, so it may
+     * probe other sets.
+     *
+     * @param action Action to be called with each live element
+     */
+    void forEachLive(Consumer<? super T> action);
+}
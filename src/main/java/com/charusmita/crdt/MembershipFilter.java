@@ -0,0 +1,47 @@
+package com.charusmita.crdt;
+
+/**
+ * A MembershipFilter is a probabilistic summary of the elements written to the Add Set ZA of a CRDT set.
+ * It can answer "definitely never added" locally, so that {@link ZSet#exists(Object)} can skip scanning the
+ * underlying sets for elements which were never added.
+ * <p/>
+ * A filter may report false positives (the element was never added but {@link #mightContain(Object)} is true)
+ * but never false negatives, as long as every add on the set is also put into the filter.
+ *
+ * @param <T> Datatype of the element to be tracked by the filter
+ */
+public interface MembershipFilter<T> {
+
+    /**
+     * Records the element in the filter
+     *
+     * @param element Element which has been added to the Add Set ZA
+     */
+    void put(T element);
+
+    /**
+     * Checks whether the element may have been put into the filter
+     *
+     * @param element Element whose presence needs to be checked
+     * @return false if the element was definitely never put, true if it might have been
+     */
+    boolean mightContain(T element);
+
+    /**
+     * Removes all elements from the filter, so that it can be rebuilt from the current Add Set ZA
+     */
+    void clear();
+
+    /**
+     * Replaces the content of the filter with the given elements. The default clears the filter and puts the
+     * elements one by one, a filter shared between clients should replace its content atomically instead.
+     *
+     * @param elements Elements of the Add Set ZA
+     */
+    default void rebuild(Iterable<? extends T> elements) {
+        clear();
+        for (T element : elements) {
+            put(element);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.charusmita.crdt;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * PersistentHashMap is an immutable hash array mapped trie (HAMT). Every {@link #put(Object, Object)} returns a new
+ * map which shares all untouched nodes with the previous one, so old versions stay valid and can be read without
+ * any locking while newer versions are being built.
+ * <p/>
+ * Each level of the trie consumes 5 bits of the key hash. A node stores a 32-bit bitmap of the occupied slots and a
+ * compact array holding either a key/value pair or a sub-node per occupied slot. Keys with the same full hash are
+ * kept in a collision node.
+ *
+ * @param <K> Datatype of the keys
+ * @param <V> Datatype of the values
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key Key to look up
+     * @return the value mapped to the key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (root == null)
+            return null;
+        return (V) root.get(0, hash(key), key);
+    }
+
+    /**
+     * Returns a new map in which the key is mapped to the value. The calling map is not modified.
+     *
+     * @param key   Key to be mapped
+     * @param value Value to be mapped to the key
+     * @return the new map, or the calling map if the key was already mapped to the same value
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node start = root == null ? BitmapIndexedNode.EMPTY : root;
+        Node newRoot = start.put(0, hash(key), key, value, added);
+        if (newRoot == root)
+            return this;
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Calls the action for every key/value pair of the map, in no particular order
+     *
+     * @param action Action to be called with each key and value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null)
+            root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 0x1f);
+    }
+
+    private static Object[] cloneAndSet(Object[] array, int i, Object value) {
+        Object[] clone = array.clone();
+        clone[i] = value;
+        return clone;
+    }
+
+    private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2)
+            return new HashCollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+        boolean[] added = new boolean[1];
+        return BitmapIndexedNode.EMPTY
+                .put(shift, hash1, key1, value1, added)
+                .put(shift, hash2, key2, value2, added);
+    }
+
+    private interface Node {
+
+        Object get(int shift, int hash, Object key);
+
+        Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Slot i of the node is stored at array[2i] (key, or null for a sub-node) and array[2i + 1] (value or sub-node)
+     */
+    private static final class BitmapIndexedNode implements Node {
+
+        static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapIndexedNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0)
+                return null;
+            int idx = index(bit);
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null)
+                return ((Node) valueOrNode).get(shift + 5, hash, key);
+            if (key.equals(keyOrNull))
+                return valueOrNode;
+            return null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitpos(hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object keyOrNull = array[2 * idx];
+                Object valueOrNode = array[2 * idx + 1];
+                if (keyOrNull == null) {
+                    Node node = ((Node) valueOrNode).put(shift + 5, hash, key, value, added);
+                    if (node == valueOrNode)
+                        return this;
+                    return new BitmapIndexedNode(bitmap, cloneAndSet(array, 2 * idx + 1, node));
+                }
+                if (key.equals(keyOrNull)) {
+                    if (value == valueOrNode)
+                        return this;
+                    return new BitmapIndexedNode(bitmap, cloneAndSet(array, 2 * idx + 1, value));
+                }
+                added[0] = true;
+                Object[] newArray = cloneAndSet(array, 2 * idx, null);
+                newArray[2 * idx + 1] = createNode(shift + 5, keyOrNull, valueOrNode, hash, key, value);
+                return new BitmapIndexedNode(bitmap, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            newArray[2 * idx] = key;
+            newArray[2 * idx + 1] = value;
+            System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), array.length - 2 * idx);
+            return new BitmapIndexedNode(bitmap | bit, newArray);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null)
+                    ((Node) array[i + 1]).forEach(action);
+                else
+                    action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    private static final class HashCollisionNode implements Node {
+
+        final int hash;
+        final Object[] array;
+
+        HashCollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        int findIndex(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            int idx = findIndex(key);
+            return idx < 0 ? null : array[idx + 1];
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash == this.hash) {
+                int idx = findIndex(key);
+                if (idx >= 0) {
+                    if (array[idx + 1] == value)
+                        return this;
+                    return new HashCollisionNode(hash, cloneAndSet(array, idx + 1, value));
+                }
+                added[0] = true;
+                Object[] newArray = Arrays.copyOf(array, array.length + 2);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+                return new HashCollisionNode(hash, newArray);
+            }
+            // push this collision node one level down, next to the new key
+            return new BitmapIndexedNode(bitpos(this.hash, shift), new Object[]{null, this})
+                    .put(shift, hash, key, value, added);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.charusmita.crdt;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * PersistentLastWriterWinsSet is a Last-Writer-Wins set whose Add Set ZA and Remove Set ZR are kept in
+ * {@link com.charusmita.crdt.PersistentHashMap}s mapping each element to its timestamp.
+ * <p/>
+ * Both maps are held in one immutable state which writers replace with compare-and-set, sharing every untouched
+ * node of the trie with the previous state. Readers never take a lock: {@link #snapshot()} is O(1) and returns a
+ * consistent point-in-time view, so long exports neither block writers nor see half applied writes.
+ *
+ * @param <T> Generic data type for element
+ */
+public class PersistentLastWriterWinsSet<T> implements ZSet<T>, LiveView<T> {
+
+    private final AtomicReference<State<T>> state;
+    private final boolean readOnly;
+
+    public PersistentLastWriterWinsSet() {
+        this(new State<>(PersistentHashMap.empty(), PersistentHashMap.empty()), false);
+    }
+
+    private PersistentLastWriterWinsSet(State<T> state, boolean readOnly) {
+        this.state = new AtomicReference<>(state);
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @return true for a snapshot, whose add, remove and newSet throw {@link UnsupportedOperationException}
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public PersistentHashMap<T, Integer> getAddSet() {
+        return state.get().addSet;
+    }
+
+    public PersistentHashMap<T, Integer> getRemoveSet() {
+        return state.get().removeSet;
+    }
+
+    /**
+     * Returns a read-only point-in-time view of the calling set in O(1). The snapshot shares its structure with
+     * the calling set and later writes to the calling set are not visible in it. Writing to the snapshot throws
+     * {@link UnsupportedOperationException}.
+     *
+     * @return the snapshot of the calling set
+     */
+    public PersistentLastWriterWinsSet<T> snapshot() {
+        return new PersistentLastWriterWinsSet<>(state.get(), true);
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     * <p/>
+     * Snapshots taken before are not affected.
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public PersistentLastWriterWinsSet<T> newSet() {
+        checkWritable();
+        state.set(new State<>(PersistentHashMap.empty(), PersistentHashMap.empty()));
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int add(T element, int timestamp) {
+        checkWritable();
+        while (true) {
+            State<T> current = state.get();
+            Integer stored = current.addSet.get(element);
+            if (stored != null && stored >= timestamp)
+                return -1;
+            State<T> updated = new State<>(current.addSet.put(element, timestamp), current.removeSet);
+            if (state.compareAndSet(current, updated))
+                return timestamp;
+        }
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int remove(T element, int timestamp) {
+        checkWritable();
+        while (true) {
+            State<T> current = state.get();
+            Integer stored = current.removeSet.get(element);
+            if (stored != null && stored >= timestamp)
+                return -1;
+            State<T> updated = new State<>(current.addSet, current.removeSet.put(element, timestamp));
+            if (state.compareAndSet(current, updated))
+                return timestamp;
+        }
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public boolean exists(T element) {
+        State<T> current = state.get();
+        Integer addTimestamp = current.addSet.get(element);
+        Integer removeTimestamp = current.removeSet.get(element);
+        if (addTimestamp != null && removeTimestamp != null) {
+            return addTimestamp > removeTimestamp;
+        }
+        return false;
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     * <p/>
+     * The result is computed from a single consistent state of the set.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public Set<T> getAllElements() {
+        State<T> current = state.get();
+        Set<T> elements = new HashSet<>();
+        current.addSet.forEach((element, addTimestamp) -> {
+            Integer removeTimestamp = current.removeSet.get(element);
+            if (removeTimestamp == null || addTimestamp > removeTimestamp)
+                elements.add(element);
+        });
+        return elements;
+    }
+
+    @Override
+    public boolean isLive(T element) {
+        State<T> current = state.get();
+        Integer addTimestamp = current.addSet.get(element);
+        if (addTimestamp == null)
+            return false;
+        Integer removeTimestamp = current.removeSet.get(element);
+        return removeTimestamp == null || addTimestamp > removeTimestamp;
+    }
+
+    @Override
+    public long estimatedLiveCount() {
+        return state.get().addSet.size();
+    }
+
+    /**
+     * Calls the action for every live element of a single consistent state of the set
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super T> action) {
+        State<T> current = state.get();
+        current.addSet.forEach((element, addTimestamp) -> {
+            Integer removeTimestamp = current.removeSet.get(element);
+            if (removeTimestamp == null || addTimestamp > removeTimestamp)
+                action.accept(element);
+        });
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new UnsupportedOperationException("A snapshot is read-only");
+    }
+
+    private static final class State<T> {
+
+        final PersistentHashMap<T, Integer> addSet;
+        final PersistentHashMap<T, Integer> removeSet;
+
+        State(PersistentHashMap<T, Integer> addSet, PersistentHashMap<T, Integer> removeSet) {
+            this.addSet = addSet;
+            this.removeSet = removeSet;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.charusmita.crdt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * SetAlgebra computes the union, intersection and difference of the live elements of several Last-Writer-Wins sets,
+ * the elements {@link ZSet#getAllElements()} would return, without materializing every input.
+ * <p/>
+ * Sets implementing {@link LiveView} are probed element by element: an intersection iterates the set with the
+ * smallest {@link LiveView#estimatedLiveCount()} and probes the others, a difference iterates the first set, and
+ * counts are computed without building a result set. When all inputs are {@link BitmapLastWriterWinsSet}s the
+ * operations run on their {@link CompressedBitmap}s. Other sets are materialized with {@link ZSet#getAllElements()}
+ * only when they are iterated or first probed, and are iterated last.
+ */
+public final class SetAlgebra {
+
+    private SetAlgebra() {
+    }
+
+    /**
+     * @param sets Sets to be intersected
+     * @return the elements live in every set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Set<T> intersection(ZSet<T>... sets) {
+        List<ZSet<T>> setList = Arrays.asList(sets);
+        CompressedBitmap bitmap = bitmapIntersection(setList);
+        if (bitmap != null)
+            return cast(bitmap.asSet());
+        Set<T> result = new HashSet<>();
+        forEachInIntersection(setList, result::add);
+        return result;
+    }
+
+    /**
+     * @param sets Sets to be intersected
+     * @return the number of elements live in every set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> long intersectionCount(ZSet<T>... sets) {
+        List<ZSet<T>> setList = Arrays.asList(sets);
+        CompressedBitmap bitmap = bitmapIntersection(setList);
+        if (bitmap != null)
+            return bitmap.cardinality();
+        long[] count = new long[1];
+        forEachInIntersection(setList, element -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * @param sets Sets to be united
+     * @return the elements live in at least one set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Set<T> union(ZSet<T>... sets) {
+        List<ZSet<T>> setList = Arrays.asList(sets);
+        CompressedBitmap bitmap = bitmapUnion(setList);
+        if (bitmap != null)
+            return cast(bitmap.asSet());
+        Set<T> result = new HashSet<>();
+        for (ZSet<T> set : setList) {
+            viewOf(set).forEachLive(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Counts every element once, in the first set it is live in, so that no result set is built
+     *
+     * @param sets Sets to be united
+     * @return the number of elements live in at least one set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> long unionCount(ZSet<T>... sets) {
+        List<ZSet<T>> setList = Arrays.asList(sets);
+        CompressedBitmap bitmap = bitmapUnion(setList);
+        if (bitmap != null)
+            return bitmap.cardinality();
+        List<LiveView<T>> views = viewsOf(setList);
+        long count = 0;
+        for (int i = 0; i < views.size(); i++) {
+            List<LiveView<T>> previous = views.subList(0, i);
+            long[] counted = new long[1];
+            views.get(i).forEachLive(element -> {
+                if (!isLiveInAny(previous, element))
+                    counted[0]++;
+            });
+            count += counted[0];
+        }
+        return count;
+    }
+
+    /**
+     * @param first  Set whose elements are kept
+     * @param others Sets whose elements are removed
+     * @return the elements live in the first set and in none of the others
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Set<T> difference(ZSet<T> first, ZSet<T>... others) {
+        List<ZSet<T>> otherList = Arrays.asList(others);
+        CompressedBitmap bitmap = bitmapDifference(first, otherList);
+        if (bitmap != null)
+            return cast(bitmap.asSet());
+        Set<T> result = new HashSet<>();
+        forEachInDifference(first, otherList, result::add);
+        return result;
+    }
+
+    /**
+     * @param first  Set whose elements are kept
+     * @param others Sets whose elements are removed
+     * @return the number of elements live in the first set and in none of the others
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> long differenceCount(ZSet<T> first, ZSet<T>... others) {
+        List<ZSet<T>> otherList = Arrays.asList(others);
+        CompressedBitmap bitmap = bitmapDifference(first, otherList);
+        if (bitmap != null)
+            return bitmap.cardinality();
+        long[] count = new long[1];
+        forEachInDifference(first, otherList, element -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Returns the set itself if it implements {@link LiveView}. Otherwise the view reads
+     * {@link ZSet#getAllElements()} on every iteration, and once on the first probe. Its estimated count is
+     * {@link Long#MAX_VALUE}, so that an intersection iterates it only if no other set can be iterated instead.
+     * {@link ZSet#exists(Object)} cannot be used for probing, as it misses the elements only present in ZA.
+     *
+     * @return a view of the live elements of the set
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LiveView<T> viewOf(ZSet<T> set) {
+        if (set instanceof LiveView)
+            return (LiveView<T>) set;
+        return new LiveView<T>() {
+            private Set<T> probed;
+
+            @Override
+            public boolean isLive(T element) {
+                if (probed == null)
+                    probed = set.getAllElements();
+                return probed.contains(element);
+            }
+
+            @Override
+            public long estimatedLiveCount() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void forEachLive(Consumer<? super T> action) {
+                set.getAllElements().forEach(action);
+            }
+        };
+    }
+
+    private static <T> void forEachInIntersection(List<ZSet<T>> sets, Consumer<T> action) {
+        if (sets.isEmpty())
+            return;
+        List<LiveView<T>> views = viewsOf(sets);
+        views.sort(Comparator.comparingLong(LiveView::estimatedLiveCount));
+        List<LiveView<T>> probed = views.subList(1, views.size());
+        views.get(0).forEachLive(element -> {
+            for (LiveView<T> view : probed) {
+                if (!view.isLive(element))
+                    return;
+            }
+            action.accept(element);
+        });
+    }
+
+    private static <T> void forEachInDifference(ZSet<T> first, List<ZSet<T>> others, Consumer<T> action) {
+        List<LiveView<T>> probed = viewsOf(others);
+        viewOf(first).forEachLive(element -> {
+            if (!isLiveInAny(probed, element))
+                action.accept(element);
+        });
+    }
+
+    private static <T> boolean isLiveInAny(List<LiveView<T>> views, T element) {
+        for (LiveView<T> view : views) {
+            if (view.isLive(element))
+                return true;
+        }
+        return false;
+    }
+
+    private static <T> List<LiveView<T>> viewsOf(List<ZSet<T>> sets) {
+        List<LiveView<T>> views = new ArrayList<>(sets.size());
+        for (ZSet<T> set : sets) {
+            views.add(viewOf(set));
+        }
+        return views;
+    }
+
+    private static CompressedBitmap bitmapIntersection(List<? extends ZSet<?>> sets) {
+        List<CompressedBitmap> bitmaps = bitmapsOf(sets);
+        if (bitmaps == null)
+            return null;
+        bitmaps.sort(Comparator.comparingLong(CompressedBitmap::cardinality));
+        CompressedBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = CompressedBitmap.and(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private static CompressedBitmap bitmapUnion(List<? extends ZSet<?>> sets) {
+        List<CompressedBitmap> bitmaps = bitmapsOf(sets);
+        if (bitmaps == null)
+            return null;
+        CompressedBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size(); i++) {
+            result = CompressedBitmap.or(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private static CompressedBitmap bitmapDifference(ZSet<?> first, List<? extends ZSet<?>> others) {
+        if (!(first instanceof BitmapLastWriterWinsSet))
+            return null;
+        List<CompressedBitmap> bitmaps = bitmapsOf(others);
+        if (bitmaps == null && !others.isEmpty())
+            return null;
+        CompressedBitmap result = ((BitmapLastWriterWinsSet) first).getElementBitmap();
+        for (int i = 0; i < others.size() && !result.isEmpty(); i++) {
+            result = CompressedBitmap.andNot(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return copies of the bitmaps of the sets, or null if the sets are not all bitmap sets
+     */
+    private static List<CompressedBitmap> bitmapsOf(List<? extends ZSet<?>> sets) {
+        if (sets.isEmpty())
+            return null;
+        for (ZSet<?> set : sets) {
+            if (!(set instanceof BitmapLastWriterWinsSet))
+                return null;
+        }
+        List<CompressedBitmap> bitmaps = new ArrayList<>(sets.size());
+        for (ZSet<?> set : sets) {
+            bitmaps.add(((BitmapLastWriterWinsSet) set).getElementBitmap());
+        }
+        return bitmaps;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Set<T> cast(Set<Integer> elements) {
+        return (Set<T>) elements;
+    }
+}
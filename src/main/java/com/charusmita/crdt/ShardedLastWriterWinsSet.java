@@ -0,0 +1,398 @@
+package com.charusmita.crdt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * ShardedLastWriterWinsSet is a Last-Writer-Wins set partitioned by element hash into shards, each holding a map
+ * from element to its add and remove timestamps under its own lock.
+ * <p/>
+ * Besides the single element operations, which only lock the shard of their element, the set supports parallel
+ * bulk loads and merges on a {@link java.util.concurrent.ForkJoinPool}. The input entries are first split into
+ * slices which are partitioned by shard in parallel, then every shard applies all entries of its partition under
+ * a single lock, so that the load time scales with the number of cores.
+ * <p/>
+ * {@link Integer#MIN_VALUE} marks a missing timestamp, so it cannot be used as timestamp.
+ *
+ * @param <T> Generic data type for element
+ */
+public class ShardedLastWriterWinsSet<T> implements ZSet<T>, LiveView<T> {
+
+    private static final int ABSENT = Integer.MIN_VALUE;
+    private static final int SLICE_SIZE = 4096;
+
+    private final List<Shard<T>> shards;
+    private final ForkJoinPool pool;
+
+    public ShardedLastWriterWinsSet() {
+        this(4 * Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param shardCount Number of shards, rounded up to a power of two
+     * @param pool       Pool running the bulk loads and merges
+     */
+    public ShardedLastWriterWinsSet(int shardCount, ForkJoinPool pool) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        int size = Integer.highestOneBit(shardCount);
+        if (size < shardCount)
+            size <<= 1;
+        this.shards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            this.shards.add(new Shard<>());
+        }
+        this.pool = pool;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public ShardedLastWriterWinsSet<T> newSet() {
+        for (Shard<T> shard : shards) {
+            shard.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int add(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        return shardOf(element).update(element, timestamp, true);
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int remove(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        return shardOf(element).update(element, timestamp, false);
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public boolean exists(T element) {
+        return shardOf(element).exists(element);
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public Set<T> getAllElements() {
+        Set<T> elements = new HashSet<>();
+        for (Shard<T> shard : shards) {
+            shard.collectLive(elements);
+        }
+        return elements;
+    }
+
+    @Override
+    public boolean isLive(T element) {
+        return shardOf(element).isLive(element);
+    }
+
+    @Override
+    public long estimatedLiveCount() {
+        long count = 0;
+        for (Shard<T> shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Calls the action for every live element, one shard at a time, on a copy of the live elements of the shard
+     * taken under its lock
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super T> action) {
+        List<T> elements = new ArrayList<>();
+        for (Shard<T> shard : shards) {
+            shard.collectLive(elements);
+            elements.forEach(action);
+            elements.clear();
+        }
+    }
+
+    /**
+     * Loads the entries of the Add Set ZA and the Remove Set ZR in parallel, keeping the most recent timestamp of
+     * every element and side, as if {@link #add(Object, int)} and {@link #remove(Object, int)} were called for
+     * every entry. Nothing is loaded if an entry has the {@link Integer#MIN_VALUE} timestamp.
+     *
+     * @param adds    Entries to be added to ZA
+     * @param removes Entries to be added to ZR
+     */
+    public void bulkLoad(Collection<Entry<T>> adds, Collection<Entry<T>> removes) {
+        Partitions<T> partitions = new Partitions<>(shards.size());
+        List<Entry<T>> addList = new ArrayList<>(adds);
+        List<Entry<T>> removeList = new ArrayList<>(removes);
+        pool.invoke(new PartitionTask(addList, 0, addList.size(), true, partitions));
+        pool.invoke(new PartitionTask(removeList, 0, removeList.size(), false, partitions));
+
+        List<ForkJoinTask<?>> applyTasks = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            Shard<T> shard = shards.get(i);
+            ConcurrentLinkedQueue<Slice<T>> queue = partitions.queues.get(i);
+            if (!queue.isEmpty())
+                applyTasks.add(ForkJoinTask.adapt(() -> shard.apply(queue)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(applyTasks)));
+    }
+
+    /**
+     * Merges the Add Set ZA and Remove Set ZR of the other set into the calling set in parallel
+     *
+     * @param other Set whose entries are merged
+     */
+    public void merge(LastWriterWinsSet<T> other) {
+        bulkLoad(other.getAddSet(), other.getRemoveSet());
+    }
+
+    /**
+     * Merges the other set into the calling set in parallel. Sets with the same number of shards are merged
+     * shard by shard without partitioning again.
+     *
+     * @param other Set whose entries are merged
+     */
+    public void merge(ShardedLastWriterWinsSet<T> other) {
+        if (other.shards.size() != shards.size()) {
+            List<Entry<T>> adds = new ArrayList<>();
+            List<Entry<T>> removes = new ArrayList<>();
+            for (Shard<T> shard : other.shards) {
+                shard.collectEntries(adds, removes);
+            }
+            bulkLoad(adds, removes);
+            return;
+        }
+        List<ForkJoinTask<?>> mergeTasks = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            Shard<T> shard = shards.get(i);
+            Shard<T> otherShard = other.shards.get(i);
+            mergeTasks.add(ForkJoinTask.adapt(() -> shard.merge(otherShard)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(mergeTasks)));
+    }
+
+    private static void checkTimestamp(int timestamp) {
+        if (timestamp == ABSENT)
+            throw new IllegalArgumentException("Integer.MIN_VALUE is reserved and cannot be used as timestamp");
+    }
+
+    private Shard<T> shardOf(Object element) {
+        return shards.get(indexOf(element, shards.size()));
+    }
+
+    private static int indexOf(Object element, int shardCount) {
+        int h = element.hashCode();
+        h ^= h >>> 16;
+        return h & (shardCount - 1);
+    }
+
+    /**
+     * Splits a range of entries until it is at most one slice long, then partitions the slice by shard and
+     * hands one sub-slice per shard to the partitions
+     */
+    private final class PartitionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Entry<T>> entries;
+        private final int from;
+        private final int to;
+        private final boolean add;
+        private final Partitions<T> partitions;
+
+        PartitionTask(List<Entry<T>> entries, int from, int to, boolean add, Partitions<T> partitions) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.add = add;
+            this.partitions = partitions;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SLICE_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PartitionTask(entries, from, middle, add, partitions),
+                        new PartitionTask(entries, middle, to, add, partitions));
+                return;
+            }
+            int shardCount = partitions.queues.size();
+            List<List<Entry<T>>> buckets = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                buckets.add(null);
+            }
+            for (int i = from; i < to; i++) {
+                Entry<T> entry = entries.get(i);
+                checkTimestamp(entry.getTimestamp());
+                int index = indexOf(entry.getElement(), shardCount);
+                if (buckets.get(index) == null)
+                    buckets.set(index, new ArrayList<>());
+                buckets.get(index).add(entry);
+            }
+            for (int i = 0; i < shardCount; i++) {
+                if (buckets.get(i) != null)
+                    partitions.queues.get(i).add(new Slice<>(buckets.get(i), add));
+            }
+        }
+    }
+
+    private static final class Partitions<T> {
+
+        final List<ConcurrentLinkedQueue<Slice<T>>> queues;
+
+        Partitions(int shardCount) {
+            queues = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                queues.add(new ConcurrentLinkedQueue<>());
+            }
+        }
+    }
+
+    private static final class Slice<T> {
+
+        final List<Entry<T>> entries;
+        final boolean add;
+
+        Slice(List<Entry<T>> entries, boolean add) {
+            this.entries = entries;
+            this.add = add;
+        }
+    }
+
+    private static final class Timestamps {
+
+        int add = ABSENT;
+        int remove = ABSENT;
+    }
+
+    private static final class Shard<T> {
+
+        private final Map<T, Timestamps> entries = new HashMap<>();
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int update(T element, int timestamp, boolean add) {
+            Timestamps timestamps = entries.computeIfAbsent(element, e -> new Timestamps());
+            int current = add ? timestamps.add : timestamps.remove;
+            if (current != ABSENT && current >= timestamp)
+                return -1;
+            if (add)
+                timestamps.add = timestamp;
+            else
+                timestamps.remove = timestamp;
+            return timestamp;
+        }
+
+        synchronized boolean exists(T element) {
+            Timestamps timestamps = entries.get(element);
+            if (timestamps != null && timestamps.add != ABSENT && timestamps.remove != ABSENT) {
+                return timestamps.add > timestamps.remove;
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized boolean isLive(T element) {
+            Timestamps timestamps = entries.get(element);
+            return timestamps != null && timestamps.add != ABSENT
+                    && (timestamps.remove == ABSENT || timestamps.add > timestamps.remove);
+        }
+
+        synchronized void collectLive(Collection<T> elements) {
+            entries.forEach((element, timestamps) -> {
+                if (timestamps.add != ABSENT && (timestamps.remove == ABSENT || timestamps.add > timestamps.remove))
+                    elements.add(element);
+            });
+        }
+
+        synchronized void collectEntries(List<Entry<T>> adds, List<Entry<T>> removes) {
+            entries.forEach((element, timestamps) -> {
+                if (timestamps.add != ABSENT)
+                    adds.add(new Entry<>(element, timestamps.add));
+                if (timestamps.remove != ABSENT)
+                    removes.add(new Entry<>(element, timestamps.remove));
+            });
+        }
+
+        synchronized void apply(Collection<Slice<T>> slices) {
+            for (Slice<T> slice : slices) {
+                for (Entry<T> entry : slice.entries) {
+                    Timestamps timestamps = entries.computeIfAbsent(entry.getElement(), e -> new Timestamps());
+                    if (slice.add)
+                        timestamps.add = Math.max(timestamps.add, entry.getTimestamp());
+                    else
+                        timestamps.remove = Math.max(timestamps.remove, entry.getTimestamp());
+                }
+            }
+        }
+
+        void merge(Shard<T> other) {
+            List<Entry<T>> adds = new ArrayList<>();
+            List<Entry<T>> removes = new ArrayList<>();
+            other.collectEntries(adds, removes);
+            List<Slice<T>> slices = new ArrayList<>(2);
+            slices.add(new Slice<>(adds, true));
+            slices.add(new Slice<>(removes, false));
+            apply(slices);
+        }
+    }
+}
@@ -0,0 +1,692 @@
+package com.charusmita.crdt;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * TieredLastWriterWinsSet is a Last-Writer-Wins set which keeps only recently touched elements on the heap and
+ * spills the others to sorted segment files on disk.
+ * <p/>
+ * The hot tier is an access ordered map from element to its add and remove timestamps, bounded by the hot
+ * capacity. The least recently used entries are evicted into a spill buffer, and a full spill buffer is written
+ * as a new segment sorted by the serialized element. Each segment keeps a block index in memory (the first key
+ * and file offset of every block), and recently read blocks are kept in a bounded read cache. When there are
+ * more than the maximum number of segments, the smallest of them (half the maximum, at least two) are merged
+ * into one, so a compaction rewrites a bounded group of similar sized segments rather than the whole cold tier.
+ * <p/>
+ * An element missing from the hot tier is looked up in the spill buffer and all segments. Writes page the most
+ * recent timestamps found back into the hot tier, while {@link #exists(Object)} only reads them. Since timestamps
+ * only grow, the hot entry of an element is always at least as recent as its spilled entry, which in turn is at
+ * least as recent as any of its copies in the segments.
+ * <p/>
+ * Heap usage is bounded by the hot capacity, the spill batch size and the read cache, plus one index key per
+ * block of cold entries. Elements must be {@link java.io.Serializable} with a canonical serialized form, as
+ * cold entries are matched by their serialized bytes. {@link Integer#MIN_VALUE} marks a missing timestamp in
+ * memory and in the segment files, so it is rejected as a timestamp.
+ *
+ * @param <T> Generic data type for element
+ */
+public class TieredLastWriterWinsSet<T> implements ZSet<T>, LiveView<T>, Closeable {
+
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    private final Path directory;
+    private final int hotCapacity;
+    private final int spillBatchSize;
+    private final int blockSize;
+    private final int cacheBlocks;
+    private final int maxSegments;
+    private final boolean ownsDirectory;
+
+    private final LinkedHashMap<T, Timestamps> hot;
+    private final Map<T, Timestamps> spill = new HashMap<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final LinkedHashMap<Long, List<Record>> blockCache;
+    private int nextSegmentId;
+
+    /**
+     * Creates the set with its segments in a new temporary directory
+     *
+     * @param hotCapacity Maximum number of entries in the hot tier
+     */
+    public TieredLastWriterWinsSet(int hotCapacity) throws IOException {
+        this(Files.createTempDirectory("crdt-tiered"), hotCapacity, Math.max(1, hotCapacity / 2), 64, 64, 8,
+                true);
+    }
+
+    /**
+     * @param directory      Directory the segment files are written to
+     * @param hotCapacity    Maximum number of entries in the hot tier
+     * @param spillBatchSize Number of evicted entries written together as one segment
+     * @param blockSize      Number of entries per block of a segment
+     * @param cacheBlocks    Maximum number of blocks in the read cache
+     * @param maxSegments    Number of segments above which the smallest segments are merged into one
+     */
+    public TieredLastWriterWinsSet(Path directory, int hotCapacity, int spillBatchSize, int blockSize,
+                                   int cacheBlocks, int maxSegments) {
+        this(directory, hotCapacity, spillBatchSize, blockSize, cacheBlocks, maxSegments, false);
+    }
+
+    private TieredLastWriterWinsSet(Path directory, int hotCapacity, int spillBatchSize, int blockSize,
+                                    int cacheBlocks, int maxSegments, boolean ownsDirectory) {
+        if (hotCapacity <= 0 || spillBatchSize <= 0 || blockSize <= 0 || cacheBlocks <= 0 || maxSegments <= 0)
+            throw new IllegalArgumentException("Capacities and sizes must be positive");
+        this.directory = directory;
+        this.hotCapacity = hotCapacity;
+        this.spillBatchSize = spillBatchSize;
+        this.blockSize = blockSize;
+        this.cacheBlocks = cacheBlocks;
+        this.maxSegments = maxSegments;
+        this.ownsDirectory = ownsDirectory;
+        this.hot = new LinkedHashMap<>(16, 0.75f, true);
+        this.blockCache = new LinkedHashMap<Long, List<Record>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Record>> eldest) {
+                return size() > TieredLastWriterWinsSet.this.cacheBlocks;
+            }
+        };
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of entries currently in the hot tier
+     */
+    public synchronized int getHotSize() {
+        return hot.size();
+    }
+
+    /**
+     * @return the number of segment files currently on disk
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     * <p/>
+     * All segment files are deleted.
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public synchronized TieredLastWriterWinsSet<T> newSet() {
+        hot.clear();
+        spill.clear();
+        deleteSegments(new ArrayList<>(segments));
+        segments.clear();
+        blockCache.clear();
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int add(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        Timestamps timestamps = touch(element, true);
+        if (timestamps.add != ABSENT && timestamps.add >= timestamp)
+            return -1;
+        timestamps.add = timestamp;
+        return timestamp;
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp to have a temporal ordering of elements, other than {@link Integer#MIN_VALUE}
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public synchronized int remove(T element, int timestamp) {
+        checkTimestamp(timestamp);
+        Timestamps timestamps = touch(element, true);
+        if (timestamps.remove != ABSENT && timestamps.remove >= timestamp)
+            return -1;
+        timestamps.remove = timestamp;
+        return timestamp;
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     * <p/>
+     * A cold element is read from the spill buffer or the segments without paging it back, so a read never
+     * evicts, writes a segment or compacts.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public synchronized boolean exists(T element) {
+        Timestamps timestamps = peek(element);
+        if (timestamps != null && timestamps.add != ABSENT && timestamps.remove != ABSENT) {
+            return timestamps.add > timestamps.remove;
+        }
+        return false;
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     * <p/>
+     * The segments are streamed block by block with a k-way merge, without going through the read cache, and
+     * their entries are overridden by the spill buffer and the hot tier. Nothing is written or compacted.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public synchronized Set<T> getAllElements() {
+        Set<T> elements = new HashSet<>();
+        MergedRecords cold = new MergedRecords(segments);
+        while (cold.hasNext()) {
+            Record record = cold.next();
+            if (!isLive(record.add, record.remove))
+                continue;
+            T element = deserialize(record.key);
+            if (!hot.containsKey(element) && !spill.containsKey(element))
+                elements.add(element);
+        }
+        spill.forEach((element, timestamps) -> {
+            if (isLive(timestamps.add, timestamps.remove))
+                elements.add(element);
+        });
+        hot.forEach((element, timestamps) -> {
+            if (isLive(timestamps.add, timestamps.remove))
+                elements.add(element);
+        });
+        return elements;
+    }
+
+    /**
+     * Reads cold elements in place like {@link #exists(Object)}
+     */
+    @Override
+    public synchronized boolean isLive(T element) {
+        Timestamps timestamps = peek(element);
+        return timestamps != null && isLive(timestamps.add, timestamps.remove);
+    }
+
+    /**
+     * @return the number of entries in the hot tier, the spill buffer and all segments, counting elements with
+     * copies in several of them more than once
+     */
+    @Override
+    public synchronized long estimatedLiveCount() {
+        long count = (long) hot.size() + spill.size();
+        for (Segment segment : segments) {
+            count += segment.recordCount;
+        }
+        return count;
+    }
+
+    /**
+     * Calls the action for every element of {@link #getAllElements()}, after releasing the lock
+     *
+     * @param action Action to be called with each live element
+     */
+    @Override
+    public void forEachLive(Consumer<? super T> action) {
+        getAllElements().forEach(action);
+    }
+
+    /**
+     * Deletes all segment files, and the directory if it was created by {@link #TieredLastWriterWinsSet(int)}.
+     * The set must not be used afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        newSet();
+        if (ownsDirectory) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void checkTimestamp(int timestamp) {
+        if (timestamp == ABSENT)
+            throw new IllegalArgumentException("Integer.MIN_VALUE is reserved and cannot be used as timestamp");
+    }
+
+    private static boolean isLive(int addTimestamp, int removeTimestamp) {
+        return addTimestamp != ABSENT && (removeTimestamp == ABSENT || addTimestamp > removeTimestamp);
+    }
+
+    /**
+     * @return the most recent timestamps of the element without paging it back, or null if the element is unknown
+     */
+    private Timestamps peek(T element) {
+        Timestamps timestamps = hot.get(element);
+        if (timestamps == null)
+            timestamps = spill.get(element);
+        if (timestamps == null && !segments.isEmpty())
+            timestamps = lookupSegments(serialize(element));
+        return timestamps;
+    }
+
+    /**
+     * Returns the hot entry of the element, paging it back from the cold tier if needed
+     *
+     * @param create true to create an empty entry if the element is in neither tier
+     * @return the hot entry, or null if the element is unknown and create is false
+     */
+    private Timestamps touch(T element, boolean create) {
+        Timestamps timestamps = hot.get(element);
+        if (timestamps != null)
+            return timestamps;
+
+        timestamps = spill.remove(element);
+        if (timestamps == null && !segments.isEmpty())
+            timestamps = lookupSegments(serialize(element));
+        if (timestamps == null) {
+            if (!create)
+                return null;
+            timestamps = new Timestamps(ABSENT, ABSENT);
+        }
+        hot.put(element, timestamps);
+        evict();
+        return timestamps;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<T, Timestamps>> eldest = hot.entrySet().iterator();
+        while (hot.size() > hotCapacity) {
+            Map.Entry<T, Timestamps> entry = eldest.next();
+            Timestamps spilled = spill.get(entry.getKey());
+            if (spilled == null)
+                spill.put(entry.getKey(), entry.getValue());
+            else
+                spilled.merge(entry.getValue().add, entry.getValue().remove);
+            eldest.remove();
+        }
+        if (spill.size() >= spillBatchSize)
+            flushSpill();
+    }
+
+    private Timestamps lookupSegments(byte[] key) {
+        Timestamps found = null;
+        for (Segment segment : segments) {
+            int block = segment.findBlock(key);
+            if (block < 0)
+                continue;
+            for (Record record : readBlock(segment, block)) {
+                if (compare(record.key, key) == 0) {
+                    if (found == null)
+                        found = new Timestamps(record.add, record.remove);
+                    else
+                        found.merge(record.add, record.remove);
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private List<Record> readBlock(Segment segment, int block) {
+        long cacheKey = ((long) segment.id << 32) | block;
+        List<Record> records = blockCache.get(cacheKey);
+        if (records == null) {
+            records = readBlockFromDisk(segment, block);
+            blockCache.put(cacheKey, records);
+        }
+        return records;
+    }
+
+    private List<Record> readBlockFromDisk(Segment segment, int block) {
+        byte[] bytes = new byte[segment.lengths[block]];
+        try (RandomAccessFile file = new RandomAccessFile(segment.file.toFile(), "r")) {
+            file.seek(segment.offsets[block]);
+            file.readFully(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Record> records = new ArrayList<>(blockSize);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            while (in.available() > 0) {
+                byte[] key = new byte[in.readInt()];
+                in.readFully(key);
+                records.add(new Record(key, in.readInt(), in.readInt()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+    private void flushSpill() {
+        if (spill.isEmpty())
+            return;
+        List<Record> records = new ArrayList<>(spill.size());
+        spill.forEach((element, timestamps) ->
+                records.add(new Record(serialize(element), timestamps.add, timestamps.remove)));
+        records.sort((first, second) -> compare(first.key, second.key));
+        spill.clear();
+
+        SegmentWriter writer = new SegmentWriter();
+        records.forEach(writer::write);
+        segments.add(writer.finish());
+        if (segments.size() > maxSegments)
+            compact();
+    }
+
+    /**
+     * Merges the smallest segments into one, keeping the most recent timestamps of every element. Since merging
+     * takes the maximum timestamps, the segments of the group do not have to be adjacent in age.
+     */
+    private void compact() {
+        List<Segment> bySize = new ArrayList<>(segments);
+        bySize.sort(Comparator.comparingLong(segment -> segment.recordCount));
+        List<Segment> group = new ArrayList<>(bySize.subList(0, Math.min(bySize.size(),
+                Math.max(2, maxSegments / 2))));
+
+        SegmentWriter writer = new SegmentWriter();
+        MergedRecords merged = new MergedRecords(group);
+        while (merged.hasNext())
+            writer.write(merged.next());
+
+        segments.removeAll(group);
+        segments.add(writer.finish());
+        deleteSegments(group);
+        Set<Integer> groupIds = new HashSet<>();
+        group.forEach(segment -> groupIds.add(segment.id));
+        blockCache.keySet().removeIf(cacheKey -> groupIds.contains((int) (cacheKey >>> 32)));
+    }
+
+    private void deleteSegments(List<Segment> toDelete) {
+        for (Segment segment : toDelete) {
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static byte[] serialize(Object element) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T deserialize(byte[] key) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(key))) {
+            return (T) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Unsigned lexicographic order of the serialized elements
+     */
+    private static int compare(byte[] first, byte[] second) {
+        int length = Math.min(first.length, second.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (first[i] & 0xff) - (second[i] & 0xff);
+            if (diff != 0)
+                return diff;
+        }
+        return first.length - second.length;
+    }
+
+    private static final class Timestamps {
+
+        int add;
+        int remove;
+
+        Timestamps(int add, int remove) {
+            this.add = add;
+            this.remove = remove;
+        }
+
+        void merge(int otherAdd, int otherRemove) {
+            add = Math.max(add, otherAdd);
+            remove = Math.max(remove, otherRemove);
+        }
+    }
+
+    private static final class Record {
+
+        final byte[] key;
+        final int add;
+        final int remove;
+
+        Record(byte[] key, int add, int remove) {
+            this.key = key;
+            this.add = add;
+            this.remove = remove;
+        }
+    }
+
+    private static final class Segment {
+
+        final int id;
+        final Path file;
+        final byte[][] firstKeys;
+        final long[] offsets;
+        final int[] lengths;
+        final long recordCount;
+
+        Segment(int id, Path file, byte[][] firstKeys, long[] offsets, int[] lengths, long recordCount) {
+            this.id = id;
+            this.file = file;
+            this.firstKeys = firstKeys;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.recordCount = recordCount;
+        }
+
+        /**
+         * @return the index of the last block whose first key is not greater than the key, or -1 if there is none
+         */
+        int findBlock(byte[] key) {
+            int low = 0;
+            int high = firstKeys.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(firstKeys[mid], key) <= 0) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Writes records in key order to a new segment file, starting a new block every blockSize records
+     */
+    private final class SegmentWriter {
+
+        private final int id = nextSegmentId++;
+        private final Path file = directory.resolve("segment-" + id + ".dat");
+        private final DataOutputStream out;
+        private final List<byte[]> firstKeys = new ArrayList<>();
+        private final List<Long> offsets = new ArrayList<>();
+        private long offset;
+        private int inBlock;
+        private long recordCount;
+
+        SegmentWriter() {
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void write(Record record) {
+            if (inBlock == 0) {
+                firstKeys.add(record.key);
+                offsets.add(offset);
+            }
+            try {
+                out.writeInt(record.key.length);
+                out.write(record.key);
+                out.writeInt(record.add);
+                out.writeInt(record.remove);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            offset += 12 + record.key.length;
+            recordCount++;
+            inBlock = (inBlock + 1) % blockSize;
+        }
+
+        Segment finish() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int blocks = offsets.size();
+            long[] blockOffsets = new long[blocks];
+            int[] blockLengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockOffsets[i] = offsets.get(i);
+                long end = i + 1 < blocks ? offsets.get(i + 1) : offset;
+                blockLengths[i] = (int) (end - blockOffsets[i]);
+            }
+            return new Segment(id, file, firstKeys.toArray(new byte[0][]), blockOffsets, blockLengths,
+                    recordCount);
+        }
+    }
+
+    /**
+     * Merges the records of several segments in key order, combining the records of the same element into one
+     * with the most recent timestamps
+     */
+    private final class MergedRecords implements Iterator<Record> {
+
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>((first, second) ->
+                compare(first.current().key, second.current().key));
+
+        MergedRecords(List<Segment> segments) {
+            for (Segment segment : segments) {
+                Cursor cursor = new Cursor(segment);
+                if (cursor.current() != null)
+                    cursors.add(cursor);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Record next() {
+            if (cursors.isEmpty())
+                throw new NoSuchElementException();
+            Record merged = pollCurrent();
+            while (!cursors.isEmpty() && compare(cursors.peek().current().key, merged.key) == 0) {
+                Record record = pollCurrent();
+                merged = new Record(merged.key, Math.max(merged.add, record.add),
+                        Math.max(merged.remove, record.remove));
+            }
+            return merged;
+        }
+
+        private Record pollCurrent() {
+            Cursor cursor = cursors.poll();
+            Record record = cursor.current();
+            if (cursor.advance() != null)
+                cursors.add(cursor);
+            return record;
+        }
+    }
+
+    /**
+     * Reads the records of a segment in key order, one block at a time and bypassing the read cache
+     */
+    private final class Cursor {
+
+        private final Segment segment;
+        private int block;
+        private List<Record> records;
+        private int position;
+
+        Cursor(Segment segment) {
+            this.segment = segment;
+            load();
+        }
+
+        Record current() {
+            return records == null ? null : records.get(position);
+        }
+
+        Record advance() {
+            position++;
+            if (position == records.size()) {
+                block++;
+                load();
+            }
+            return current();
+        }
+
+        private void load() {
+            position = 0;
+            if (block >= segment.offsets.length) {
+                records = null;
+                return;
+            }
+            records = readBlockFromDisk(segment, block);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.charusmita.crdt;
+
+import java.util.Map;
+
+/**
+ * A Last-Writer-Wins element map. Every key holds one register with the value and the timestamp of the most
+ * recent put or remove of the key, so the current value of a key is found with one lookup.
+ * <p/>
+ * A write is applied only if its timestamp is more recent than the timestamp of the key. A remove with the same
+ * timestamp as the current put of the key wins, as in {@link ZSet#exists(Object)}. Of two puts of a key with the
+ * same timestamp the greater value wins, in an order every replica agrees on, so replicas converge whatever the
+ * order of arrival.
+ *
+ * @param <K> Generic data type for key
+ * @param <V> Generic data type for value
+ */
+public interface ZMap<K, V> {
+
+    /**
+     * Returns the newly created calling Map. Or if the calling map is not empty, all keys and their timestamps
+     * are cleared and then the current map is returned
+     *
+     * @return the (cleared/emptied) calling Map
+     */
+    ZMap<K, V> newMap();
+
+    /**
+     * Sets the value of the key if the timestamp is more recent than the timestamp of the key, or equal to the
+     * timestamp of a put of a lesser value
+     *
+     * @param key       Key whose value is set
+     * @param value     Value to be set
+     * @param timestamp The timestamp to have a temporal ordering of writes
+     * @return the timestamp if the value was set or -1 for a more recent write of the key
+     */
+    int put(K key, V value, int timestamp);
+
+    /**
+     * Removes the key if the timestamp is at least as recent as its put, and more recent than its last remove
+     *
+     * @param key       Key to be removed
+     * @param timestamp The timestamp to have a temporal ordering of writes
+     * @return the timestamp if the key was removed or -1 for a more recent write of the key
+     */
+    int remove(K key, int timestamp);
+
+    /**
+     * @param key Key whose value is returned
+     * @return the current value of the key, or null if the key was never put or is removed
+     */
+    V get(K key);
+
+    /**
+     * @param key Key whose presence needs to be checked
+     * @return true if the key has a current value
+     */
+    boolean containsKey(K key);
+
+    /**
+     * @return a Map of all keys with a current value
+     */
+    Map<K, V> getAll();
+}
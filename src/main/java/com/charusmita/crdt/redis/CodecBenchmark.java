@@ -0,0 +1,64 @@
+package com.charusmita.crdt.redis;
+
+import io.netty.buffer.ByteBuf;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.MarshallingCodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CodecBenchmark compares {@link ElementCodec} with Redisson's default {@link MarshallingCodec} on the
+ * encoded member size and the encode + decode time of typical elements. It runs locally and needs no
+ * Redis server.
+ */
+public class CodecBenchmark {
+
+    private static final int ELEMENTS = 10000;
+    private static final int ROUNDS = 100;
+
+    public static void main(String[] args) throws IOException {
+        List<Object> strings = new ArrayList<>();
+        List<Object> integers = new ArrayList<>();
+        for (int i = 0; i < ELEMENTS; i++) {
+            strings.add("tenant-42:user-session:" + i);
+            integers.add(i * 7919);
+        }
+
+        Codec[] codecs = {new MarshallingCodec(), new ElementCodec()};
+        for (Codec codec : codecs) {
+            run(codec, "String", strings);
+            run(codec, "Integer", integers);
+        }
+    }
+
+    private static void run(Codec codec, String type, List<Object> elements) throws IOException {
+        // warm up
+        measure(codec, elements, ROUNDS);
+        long start = System.nanoTime();
+        long bytes = measure(codec, elements, ROUNDS);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-18s %-8s avgBytes=%6.1f encode+decode ns/op=%8.1f%n",
+                codec.getClass().getSimpleName(), type, (double) bytes / elements.size() / ROUNDS,
+                (double) nanos / elements.size() / ROUNDS);
+    }
+
+    private static long measure(Codec codec, List<Object> elements, int rounds) throws IOException {
+        long bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Object element : elements) {
+                ByteBuf buf = codec.getValueEncoder().encode(element);
+                try {
+                    bytes += buf.readableBytes();
+                    Object decoded = codec.getValueDecoder().decode(buf, null);
+                    if (!element.equals(decoded))
+                        throw new IllegalStateException("Round trip failed for " + element);
+                } finally {
+                    buf.release();
+                }
+            }
+        }
+        return bytes;
+    }
+}
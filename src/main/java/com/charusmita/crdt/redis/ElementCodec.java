@@ -0,0 +1,177 @@
+package com.charusmita.crdt.redis;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.MarshallingCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ElementCodec is a compact binary {@link org.redisson.client.codec.Codec} for the members of
+ * {@link LastWriterWinsRedisSet}. Every member is written as a one byte type tag followed by its payload:
+ * <ul>
+ * <li>Strings as their UTF-8 bytes</li>
+ * <li>Integers, Longs and Doubles as fixed width big-endian values (Doubles with canonical NaN)</li>
+ * <li>User types with the {@link ElementSerializer} registered for their tag</li>
+ * <li>Any other type with a fallback codec, Redisson's default {@link MarshallingCodec} unless given</li>
+ * </ul>
+ * The encoding of the built-in types is canonical, equal elements always have the same bytes, so Redis finds
+ * members for ZSCORE/ZADD/ZREM by comparing raw bytes without any deserialization. Registered types are canonical
+ * if their {@link ElementSerializer} is. The fallback codec gives no such guarantee: equal values of other types
+ * (e.g. hash based collections) may be written with different bytes and stored as duplicate members, so register
+ * a serializer for every type used as element. All clients of the same sets must use the same codec with the same
+ * registrations.
+ */
+public class ElementCodec extends BaseCodec {
+
+    private static final byte FALLBACK = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+
+    /**
+     * Lowest tag available to {@link #register(int, Class, ElementSerializer)}
+     */
+    public static final int FIRST_USER_TAG = 16;
+
+    private final Codec fallback;
+    private final Map<Class<?>, Registration<?>> byType = new HashMap<>();
+    private final Registration<?>[] byTag = new Registration<?>[256];
+
+    private final Encoder encoder = this::encode;
+    private final Decoder<Object> decoder = (buf, state) -> decode(buf, state);
+
+    public ElementCodec() {
+        this(new MarshallingCodec());
+    }
+
+    public ElementCodec(Codec fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Registers the serializer of a user type. Must be called before the codec is used.
+     *
+     * @param tag        Type tag written before the payload, between {@link #FIRST_USER_TAG} and 255
+     * @param type       Exact class of the elements to be written with the serializer
+     * @param serializer Serializer of the type
+     * @param <T>        Datatype of the element
+     * @return the calling codec
+     */
+    public synchronized <T> ElementCodec register(int tag, Class<T> type, ElementSerializer<T> serializer) {
+        if (tag < FIRST_USER_TAG || tag > 255)
+            throw new IllegalArgumentException("tag must be between " + FIRST_USER_TAG + " and 255: " + tag);
+        if (byTag[tag] != null)
+            throw new IllegalArgumentException("tag " + tag + " is already registered for " + byTag[tag].type);
+        Registration<T> registration = new Registration<>((byte) tag, type, serializer);
+        byTag[tag] = registration;
+        byType.put(type, registration);
+        return this;
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Encodes the element into the bytes stored in Redis
+     *
+     * @param element Element to be encoded
+     * @return the encoded bytes
+     */
+    public byte[] encodeToBytes(Object element) throws IOException {
+        ByteBuf buf = encode(element);
+        try {
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ByteBuf encode(Object element) throws IOException {
+        if (element instanceof String) {
+            byte[] value = ((String) element).getBytes(StandardCharsets.UTF_8);
+            return ByteBufAllocator.DEFAULT.heapBuffer(1 + value.length).writeByte(STRING).writeBytes(value);
+        }
+        if (element instanceof Integer) {
+            return ByteBufAllocator.DEFAULT.heapBuffer(5).writeByte(INTEGER).writeInt((Integer) element);
+        }
+        if (element instanceof Long) {
+            return ByteBufAllocator.DEFAULT.heapBuffer(9).writeByte(LONG).writeLong((Long) element);
+        }
+        if (element instanceof Double) {
+            long bits = Double.doubleToLongBits((Double) element);
+            return ByteBufAllocator.DEFAULT.heapBuffer(9).writeByte(DOUBLE).writeLong(bits);
+        }
+        Registration<Object> registration = (Registration<Object>) byType.get(element.getClass());
+        if (registration != null) {
+            ByteBuf out = ByteBufAllocator.DEFAULT.heapBuffer();
+            out.writeByte(registration.tag);
+            registration.serializer.write(element, out);
+            return out;
+        }
+        ByteBuf payload = fallback.getValueEncoder().encode(element);
+        try {
+            ByteBuf out = ByteBufAllocator.DEFAULT.heapBuffer(1 + payload.readableBytes());
+            out.writeByte(FALLBACK);
+            out.writeBytes(payload);
+            return out;
+        } finally {
+            payload.release();
+        }
+    }
+
+    private Object decode(ByteBuf buf, State state) throws IOException {
+        int tag = buf.readUnsignedByte();
+        switch (tag) {
+            case STRING:
+                byte[] value = new byte[buf.readableBytes()];
+                buf.readBytes(value);
+                return new String(value, StandardCharsets.UTF_8);
+            case INTEGER:
+                return buf.readInt();
+            case LONG:
+                return buf.readLong();
+            case DOUBLE:
+                return Double.longBitsToDouble(buf.readLong());
+            case FALLBACK:
+                return fallback.getValueDecoder().decode(buf, state);
+            default:
+                Registration<?> registration = byTag[tag];
+                if (registration == null)
+                    throw new IOException("No serializer registered for tag " + tag);
+                return registration.serializer.read(buf);
+        }
+    }
+
+    private static final class Registration<T> {
+
+        final byte tag;
+        final Class<T> type;
+        final ElementSerializer<T> serializer;
+
+        Registration(byte tag, Class<T> type, ElementSerializer<T> serializer) {
+            this.tag = tag;
+            this.type = type;
+            this.serializer = serializer;
+        }
+    }
+}
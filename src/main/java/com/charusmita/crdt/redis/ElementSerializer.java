@@ -0,0 +1,26 @@
+package com.charusmita.crdt.redis;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An ElementSerializer writes and reads the binary form of a user type registered with {@link ElementCodec}.
+ * <p/>
+ * Redis compares sorted set members by their bytes, so the binary form must be canonical: equal values must
+ * always be written as the same bytes.
+ *
+ * @param <T> Datatype of the element
+ */
+public interface ElementSerializer<T> {
+
+    /**
+     * @param value Element to be written
+     * @param out   Buffer to write the element to
+     */
+    void write(T value, ByteBuf out);
+
+    /**
+     * @param in Buffer holding exactly the bytes written by {@link #write(Object, ByteBuf)}
+     * @return the element read from the buffer
+     */
+    T read(ByteBuf in);
+}
@@ -0,0 +1,151 @@
+package com.charusmita.crdt.redis;
+
+import com.charusmita.crdt.ZMap;
+import io.netty.buffer.ByteBuf;
+import org.redisson.api.RMap;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LastWriterWinsRedisMap is the Redis {@link com.charusmita.crdt.ZMap}. The current values are stored in a Redis
+ * hash and the timestamp of every key in a ZSET with the key as member and the timestamp as score. A removed key
+ * keeps its score but has no field in the hash.
+ * <p/>
+ * Writes are applied by a Lua script which compares the score and updates both structures in one round trip.
+ * Puts of a key with the same timestamp are ordered by the bytes of the encoded values, compared unsigned, so
+ * every replica must use the same codec.
+ * {@link #get(Object)}, {@link #containsKey(Object)} and {@link #getAll()} read only the hash, with one HGET,
+ * HEXISTS or HGETALL.
+ * <p/>
+ * Both keys share the hash tag of the map name, so they live in the same slot of a Redis cluster.
+ *
+ * @param <K> Generic data type for key
+ * @param <V> Generic data type for value
+ */
+public class LastWriterWinsRedisMap<K, V> implements ZMap<K, V> {
+
+    private static final String PUT_SCRIPT =
+            "local function greater(a, b) "
+                    + "for i = 1, math.min(#a, #b) do "
+                    + "local x, y = string.byte(a, i), string.byte(b, i) "
+                    + "if x ~= y then return x > y end end "
+                    + "return #a > #b end "
+                    + "local current = redis.call('zscore', KEYS[2], ARGV[1]) "
+                    + "if current and tonumber(current) > tonumber(ARGV[3]) then return -1 end "
+                    + "if current and tonumber(current) == tonumber(ARGV[3]) then "
+                    + "local stored = redis.call('hget', KEYS[1], ARGV[1]) "
+                    + "if not stored or not greater(ARGV[2], stored) then return -1 end end "
+                    + "redis.call('zadd', KEYS[2], ARGV[3], ARGV[1]) "
+                    + "redis.call('hset', KEYS[1], ARGV[1], ARGV[2]) "
+                    + "return tonumber(ARGV[3])";
+
+    private static final String REMOVE_SCRIPT =
+            "local current = redis.call('zscore', KEYS[2], ARGV[1]) "
+                    + "if current and (tonumber(current) > tonumber(ARGV[2]) "
+                    + "or (tonumber(current) == tonumber(ARGV[2]) and redis.call('hexists', KEYS[1], ARGV[1]) == 0)) "
+                    + "then return -1 end "
+                    + "redis.call('zadd', KEYS[2], ARGV[2], ARGV[1]) "
+                    + "redis.call('hdel', KEYS[1], ARGV[1]) "
+                    + "return tonumber(ARGV[2])";
+
+    private final RMap<K, V> values;
+    private final RScoredSortedSet<Object> timestamps;
+    private final RScript script;
+    private final Codec codec;
+
+    public RMap<K, V> getValues() {
+        return values;
+    }
+
+    /**
+     * @param redisson The Redisson client
+     * @param name     Name of the map, the hash is stored as {name}:values and the scores as {name}:timestamps
+     * @param codec    Codec of the keys and values, e.g. {@link ElementCodec}
+     */
+    public LastWriterWinsRedisMap(RedissonClient redisson, String name, Codec codec) {
+        this.codec = codec;
+        this.values = redisson.getMap("{" + name + "}:values", codec);
+        this.timestamps = redisson.getScoredSortedSet("{" + name + "}:timestamps", ByteArrayCodec.INSTANCE);
+        this.script = redisson.getScript(ByteArrayCodec.INSTANCE);
+    }
+
+    @Override
+    public LastWriterWinsRedisMap<K, V> newMap() {
+        values.delete();
+        timestamps.delete();
+        return this;
+    }
+
+    @Override
+    public int put(K key, V value, int timestamp) {
+        Long result = script.eval(RScript.Mode.READ_WRITE, PUT_SCRIPT, RScript.ReturnType.INTEGER, keys(),
+                encode(codec.getMapKeyEncoder(), key), encode(codec.getMapValueEncoder(), value),
+                score(timestamp));
+        return result.intValue();
+    }
+
+    @Override
+    public int remove(K key, int timestamp) {
+        Long result = script.eval(RScript.Mode.READ_WRITE, REMOVE_SCRIPT, RScript.ReturnType.INTEGER, keys(),
+                encode(codec.getMapKeyEncoder(), key), score(timestamp));
+        return result.intValue();
+    }
+
+    @Override
+    public V get(K key) {
+        return values.get(key);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * @param key Key whose timestamp is returned
+     * @return the timestamp of the last applied put or remove of the key, or -1 if the key was never written
+     */
+    public int getTimestamp(K key) {
+        Double score = timestamps.getScore(encode(codec.getMapKeyEncoder(), key));
+        return score == null ? -1 : score.intValue();
+    }
+
+    @Override
+    public Map<K, V> getAll() {
+        return values.readAllMap();
+    }
+
+    private List<Object> keys() {
+        return Arrays.asList(values.getName(), timestamps.getName());
+    }
+
+    private static byte[] score(int timestamp) {
+        return Integer.toString(timestamp).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] encode(Encoder encoder, Object object) {
+        try {
+            ByteBuf buf = encoder.encode(object);
+            try {
+                byte[] bytes = new byte[buf.readableBytes()];
+                buf.readBytes(bytes);
+                return bytes;
+            } finally {
+                buf.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
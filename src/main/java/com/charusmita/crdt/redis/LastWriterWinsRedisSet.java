@@ -1,10 +1,12 @@
 package com.charusmita.crdt.redis;
 
+import com.charusmita.crdt.MembershipFilter;
 import com.charusmita.crdt.ZSet;
 import org.redisson.Redisson;
 import org.redisson.RedissonScoredSortedSet;
 import org.redisson.api.RScoredSortedSet;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.redisson.config.Config;
 
 import java.util.Set;
@@ -26,6 +28,7 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
 
     private final RScoredSortedSet<T> addSet;
     private final RScoredSortedSet<T> removeSet;
+    private final MembershipFilter<T> filter;
 
     public RScoredSortedSet<T> getAddSet() {
         return addSet;
@@ -35,9 +38,48 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
         return removeSet;
     }
 
+    public MembershipFilter<T> getFilter() {
+        return filter;
+    }
+
     public LastWriterWinsRedisSet(RedissonScoredSortedSet<T> addSet, RedissonScoredSortedSet<T> removeSet) {
+        this(addSet, removeSet, null);
+    }
+
+    /**
+     * Creates the set over the given Add Set ZA and Remove Set ZR with a {@link MembershipFilter} which is
+     * maintained on every add and consulted first by {@link #exists(Object)}.
+     * <p/>
+     * The filter is used as it is, so that clients sharing a {@link RedisBloomFilter} do not fill it again every
+     * time one of them starts. Call {@link #rebuildFilter()} once to fill a new filter from the elements already
+     * present in ZA. A local filter such as {@link com.charusmita.crdt.BloomFilter} only sees the adds of this
+     * client, so it must only be used when this client is the single writer. Use {@link RedisBloomFilter} when
+     * several clients share the sets.
+     *
+     * @param addSet    The Add Set ZA
+     * @param removeSet The Remove Set ZR
+     * @param filter    The filter used to short-circuit {@link #exists(Object)} for never added elements, or null
+     */
+    public LastWriterWinsRedisSet(RedissonScoredSortedSet<T> addSet, RedissonScoredSortedSet<T> removeSet,
+                                  MembershipFilter<T> filter) {
         this.addSet = addSet;
         this.removeSet = removeSet;
+        this.filter = filter;
+    }
+
+    /**
+     * Creates the set over the Redis sorted sets with the given names, whose members are encoded with the given
+     * codec, e.g. {@link ElementCodec}. All clients of the same sets must use the same codec.
+     *
+     * @param redisson      The Redisson client
+     * @param addSetName    Name of the Add Set ZA in Redis
+     * @param removeSetName Name of the Remove Set ZR in Redis
+     * @param codec         Codec of the members of both sets
+     */
+    public LastWriterWinsRedisSet(RedissonClient redisson, String addSetName, String removeSetName, Codec codec) {
+        this.addSet = redisson.getScoredSortedSet(addSetName, codec);
+        this.removeSet = redisson.getScoredSortedSet(removeSetName, codec);
+        this.filter = null;
     }
 
     public LastWriterWinsRedisSet() {
@@ -56,6 +98,23 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
 
         this.addSet = redisson.getScoredSortedSet("simpleAdd");
         this.removeSet = redisson.getScoredSortedSet("simpleRemove");
+        this.filter = null;
+    }
+
+    /**
+     * Replaces the content of the {@link MembershipFilter} (if any) with the elements of the Add Set ZA
+     * <p/>
+     * Since {@link #add(Object, int)} writes ZA before the filter, an element added while the filter is rebuilt
+     * is either in the new filter or in ZA before the rebuild ends. If ZA grew meanwhile, its elements are put
+     * into the new filter once more, so no added element is missing from the filter.
+     */
+    public void rebuildFilter() {
+        if (filter == null)
+            return;
+        int size = addSet.size();
+        filter.rebuild(addSet);
+        if (addSet.size() != size)
+            addSet.forEach(filter::put);
     }
 
     /**
@@ -69,6 +128,8 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
             this.addSet.clear();
         if (!this.removeSet.isEmpty())
             this.removeSet.clear();
+        if (this.filter != null)
+            this.filter.clear();
         return this;
     }
 
@@ -86,9 +147,12 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
      */
     @Override
     public int add(T element, int timestamp) {
-        if (this.getAddSet().contains(element))
+        if (this.getAddSet().contains(element)) {
+            putIntoFilter(element);
             return -1;
+        }
         this.getAddSet().add(timestamp, element);
+        putIntoFilter(element);
         return timestamp;
     }
 
@@ -121,12 +185,17 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
      * <p/>
      * We have to compare timestamps of Add Set and Remove Set here as there are separate scores
      * for the same element in Add and Remove Sets.
+     * <p/>
+     * If a {@link MembershipFilter} is set, elements which were definitely never added are rejected
+     * without querying ZA and ZR.
      *
      * @param element Element whose presence needs to be checked in the set
      * @return true if element is present according to above mentioned conditions otherwise false
      */
     @Override
     public boolean exists(T element) {
+        if (filter != null && !filter.mightContain(element))
+            return false;
         if (this.getAddSet().contains(element) && this.getRemoveSet().contains(element)) {
             return (this.getAddSet().getScore(element) > this.getRemoveSet().getScore(element));
         }
@@ -158,4 +227,9 @@ public class LastWriterWinsRedisSet<T> implements ZSet<T> {
                 .collect(Collectors.toSet());
 
     }
-}
\ No newline at end of file
+
+    private void putIntoFilter(T element) {
+        if (filter != null)
+            filter.put(element);
+    }
+}
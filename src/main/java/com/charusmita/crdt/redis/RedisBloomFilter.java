@@ -0,0 +1,116 @@
+package com.charusmita.crdt.redis;
+
+import com.charusmita.crdt.MembershipFilter;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * RedisBloomFilter is a {@link com.charusmita.crdt.MembershipFilter} stored in Redis as a
+ * {@link org.redisson.api.RBloomFilter}, so that every client of a shared {@link LastWriterWinsRedisSet}
+ * sees the elements added by the other clients.
+ * <p/>
+ * A {@link #mightContain(Object)} costs one round trip, compared to the two to four round trips of
+ * {@link LastWriterWinsRedisSet#exists(Object)} on the Add and Remove sets.
+ * <p/>
+ * {@link #clear()} and {@link #rebuild(Iterable)} build the new filter under a temporary key and swap it in with
+ * RENAME in one Lua script, so that other clients never see a missing or half built filter.
+ *
+ * @param <T> Generic data type for element
+ */
+public class RedisBloomFilter<T> implements MembershipFilter<T> {
+
+    private static final String SWAP_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 1 then redis.call('rename', KEYS[1], KEYS[2]) "
+                    + "else redis.call('del', KEYS[2]) end "
+                    + "redis.call('rename', KEYS[3], KEYS[4]) "
+                    + "return 1";
+
+    private final RedissonClient redisson;
+    private final RBloomFilter<T> bloomFilter;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    public RBloomFilter<T> getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * @param redisson                 The Redisson client the filter was created with
+     * @param bloomFilter              The filter in Redis
+     * @param expectedInsertions       Expected number of elements
+     * @param falsePositiveProbability Wanted false positive probability
+     */
+    public RedisBloomFilter(RedissonClient redisson, RBloomFilter<T> bloomFilter, long expectedInsertions,
+                            double falsePositiveProbability) {
+        this.redisson = redisson;
+        this.bloomFilter = bloomFilter;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bloomFilter.tryInit(expectedInsertions, falsePositiveProbability);
+    }
+
+    public RedisBloomFilter(RedissonClient redisson, String name, long expectedInsertions,
+                            double falsePositiveProbability) {
+        this(redisson, redisson.getBloomFilter(name), expectedInsertions, falsePositiveProbability);
+    }
+
+    @Override
+    public void put(T element) {
+        bloomFilter.add(element);
+    }
+
+    @Override
+    public boolean mightContain(T element) {
+        return bloomFilter.contains(element);
+    }
+
+    /**
+     * Atomically replaces the filter in Redis with an empty one with the same expected insertions and
+     * false positive probability
+     */
+    @Override
+    public void clear() {
+        rebuild(Collections.emptyList());
+    }
+
+    /**
+     * Puts the elements into a new filter under a temporary key, then atomically renames it to the name of the
+     * filter. Elements put by other clients while the new filter is built are not in it, see
+     * {@link LastWriterWinsRedisSet#rebuildFilter()}.
+     *
+     * @param elements Elements of the Add Set ZA
+     */
+    @Override
+    public void rebuild(Iterable<? extends T> elements) {
+        String name = bloomFilter.getName();
+        String temporaryName = name + ":rebuild:" + UUID.randomUUID();
+        RBloomFilter<T> temporary = redisson.getBloomFilter(temporaryName, bloomFilter.getCodec());
+        temporary.tryInit(expectedInsertions, falsePositiveProbability);
+        try {
+            for (T element : elements) {
+                temporary.add(element);
+            }
+            redisson.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, SWAP_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    Arrays.asList(temporaryName, name, configName(temporaryName), configName(name)));
+        } catch (RuntimeException e) {
+            temporary.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the name of the hash in which Redisson keeps the size and hash iterations of a filter
+     */
+    private static String configName(String name) {
+        if (name.contains("{"))
+            return name + ":config";
+        return "{" + name + "}:config";
+    }
+}
@@ -0,0 +1,267 @@
+package com.charusmita.crdt.redis;
+
+import io.netty.buffer.Unpooled;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RedisSetAlgebra computes the union, intersection and difference of the live elements of several
+ * {@link LastWriterWinsRedisSet}s inside Redis, so the inputs are never transferred to the client.
+ * <p/>
+ * An element is live in a set if it has a score in the Add Set ZA and either no score in the Remove Set ZR or a
+ * lower one. ZINTERSTORE alone cannot express that comparison, so a read-only Lua script reads one page of ZA of the
+ * set with the lowest ZCARD (intersection), of the first set (difference) or of each set in turn (union, counting
+ * every element in the first set it is live in) and probes the other sets with ZSCORE. Every call returns the next
+ * offset, and the client calls the script again until the last page, so Redis is never blocked for more than one
+ * page. Counts only transfer one integer per page, the other operations only transfer the resulting elements.
+ * <p/>
+ * The scripts are loaded once with SCRIPT LOAD and called with EVALSHA, and loaded again if Redis lost them. Each
+ * page is atomic but the operation as a whole is not, an element written meanwhile may be missed or seen twice.
+ * <p/>
+ * All sets must use the same codec, and on a Redis cluster all their keys must be in the same slot.
+ */
+public class RedisSetAlgebra {
+
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
+    /**
+     * KEYS are the pairs of ZA and ZR, ARGV the index of the scanned set, the offset of the page, the page size and
+     * 1 to only count. Returns the next offset (-1 after the last page), the count and the elements of the page.
+     */
+    private static final String PAGE =
+            "local n = #KEYS / 2 "
+                    + "local j = tonumber(ARGV[1]) "
+                    + "local start = tonumber(ARGV[2]) "
+                    + "local pageSize = tonumber(ARGV[3]) "
+                    + "local countOnly = ARGV[4] == '1' "
+                    + "local function live(i, m) "
+                    + "local a = redis.call('zscore', KEYS[2 * i - 1], m) "
+                    + "if not a then return false end "
+                    + "local r = redis.call('zscore', KEYS[2 * i], m) "
+                    + "return (not r) or tonumber(a) > tonumber(r) end "
+                    + "local function keep(m) KEEP end "
+                    + "local members = redis.call('zrange', KEYS[2 * j - 1], start, start + pageSize - 1) "
+                    + "local result = {-1, 0} "
+                    + "if #members == pageSize then result[1] = start + pageSize end "
+                    + "for _, m in ipairs(members) do "
+                    + "if live(j, m) and keep(m) then "
+                    + "result[2] = result[2] + 1 "
+                    + "if not countOnly then result[#result + 1] = m end end end "
+                    + "return result";
+
+    private static final String INTERSECTION_SCRIPT = PAGE.replace("KEEP",
+            "for i = 1, n do if i ~= j and not live(i, m) then return false end end return true");
+
+    private static final String DIFFERENCE_SCRIPT = PAGE.replace("KEEP",
+            "for i = 2, n do if live(i, m) then return false end end return true");
+
+    private static final String UNION_SCRIPT = PAGE.replace("KEEP",
+            "for i = 1, j - 1 do if live(i, m) then return false end end return true");
+
+    private final RScript script;
+    private final int pageSize;
+    private final LoadedScript intersection = new LoadedScript(INTERSECTION_SCRIPT);
+    private final LoadedScript difference = new LoadedScript(DIFFERENCE_SCRIPT);
+    private final LoadedScript union = new LoadedScript(UNION_SCRIPT);
+
+    public RedisSetAlgebra(RedissonClient redisson) {
+        this(redisson, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param redisson The Redisson client
+     * @param pageSize Number of members of ZA read by one script call
+     */
+    public RedisSetAlgebra(RedissonClient redisson, int pageSize) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        this.script = redisson.getScript(ByteArrayCodec.INSTANCE);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param sets Sets to be intersected
+     * @return the elements live in every set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> Set<T> intersection(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        Set<T> elements = new HashSet<>();
+        if (!setList.isEmpty())
+            scan(intersection, setList, smallest(setList), false, elements);
+        return elements;
+    }
+
+    /**
+     * @param sets Sets to be intersected
+     * @return the number of elements live in every set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> long intersectionCount(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        return setList.isEmpty() ? 0 : scan(intersection, setList, smallest(setList), true, null);
+    }
+
+    /**
+     * @param sets Sets to be united
+     * @return the elements live in at least one set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> Set<T> union(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        Set<T> elements = new HashSet<>();
+        for (int j = 1; j <= setList.size(); j++) {
+            scan(union, setList, j, false, elements);
+        }
+        return elements;
+    }
+
+    /**
+     * @param sets Sets to be united
+     * @return the number of elements live in at least one set
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> long unionCount(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        long count = 0;
+        for (int j = 1; j <= setList.size(); j++) {
+            count += scan(union, setList, j, true, null);
+        }
+        return count;
+    }
+
+    /**
+     * @param sets The set whose elements are kept, followed by the sets whose elements are removed
+     * @return the elements live in the first set and in none of the others
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> Set<T> difference(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        Set<T> elements = new HashSet<>();
+        if (!setList.isEmpty())
+            scan(difference, setList, 1, false, elements);
+        return elements;
+    }
+
+    /**
+     * @param sets The set whose elements are kept, followed by the sets whose elements are removed
+     * @return the number of elements live in the first set and in none of the others
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <T> long differenceCount(LastWriterWinsRedisSet<T>... sets) {
+        List<LastWriterWinsRedisSet<T>> setList = Arrays.asList(sets);
+        return setList.isEmpty() ? 0 : scan(difference, setList, 1, true, null);
+    }
+
+    /**
+     * Calls the script page by page over ZA of the set at the 1-based index
+     *
+     * @param elements Set the elements of every page are decoded into, unused when only counting
+     * @return the number of elements the script kept
+     */
+    private <T> long scan(LoadedScript loaded, List<LastWriterWinsRedisSet<T>> sets, int index, boolean countOnly,
+                          Set<T> elements) {
+        Codec codec = sets.get(index - 1).getAddSet().getCodec();
+        List<Object> keys = keys(sets);
+        long count = 0;
+        long offset = 0;
+        while (offset >= 0) {
+            List<Object> page = loaded.eval(script, keys, ascii(index), ascii(offset), ascii(pageSize),
+                    ascii(countOnly ? 1 : 0));
+            offset = (Long) page.get(0);
+            count += (Long) page.get(1);
+            for (int i = 2; i < page.size(); i++) {
+                elements.add(decode(codec, (byte[]) page.get(i)));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the 1-based index of the set with the smallest Add Set ZA
+     */
+    private static int smallest(List<? extends LastWriterWinsRedisSet<?>> sets) {
+        int smallest = 1;
+        int size = sets.get(0).getAddSet().size();
+        for (int i = 2; i <= sets.size(); i++) {
+            int candidate = sets.get(i - 1).getAddSet().size();
+            if (candidate < size) {
+                smallest = i;
+                size = candidate;
+            }
+        }
+        return smallest;
+    }
+
+    private static List<Object> keys(List<? extends LastWriterWinsRedisSet<?>> sets) {
+        List<Object> keys = new ArrayList<>(sets.size() * 2);
+        for (LastWriterWinsRedisSet<?> set : sets) {
+            keys.add(set.getAddSet().getName());
+            keys.add(set.getRemoveSet().getName());
+        }
+        return keys;
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T decode(Codec codec, byte[] bytes) {
+        try {
+            return (T) codec.getValueDecoder().decode(Unpooled.wrappedBuffer(bytes), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A script loaded once and called by its SHA1 digest, loaded again if Redis answers NOSCRIPT, for instance
+     * after SCRIPT FLUSH or a restart
+     */
+    private static final class LoadedScript {
+
+        private final String source;
+        private volatile String sha;
+
+        LoadedScript(String source) {
+            this.source = source;
+        }
+
+        List<Object> eval(RScript script, List<Object> keys, Object... args) {
+            String current = sha;
+            if (current == null)
+                current = load(script);
+            try {
+                return script.evalSha(RScript.Mode.READ_ONLY, current, RScript.ReturnType.MULTI, keys, args);
+            } catch (RedisException e) {
+                if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT"))
+                    throw e;
+                return script.evalSha(RScript.Mode.READ_ONLY, load(script), RScript.ReturnType.MULTI, keys, args);
+            }
+        }
+
+        private String load(RScript script) {
+            sha = script.scriptLoad(source);
+            return sha;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.charusmita.crdt.redis;
+
+/**
+ * ReplicaReadOptions holds the staleness and consistency settings of a {@link ReplicaReadRedisSet}
+ */
+public class ReplicaReadOptions {
+
+    private long heartbeatIntervalMillis = 100;
+    private long maxStalenessMillis = 1000;
+    private boolean readYourWrites = true;
+    private int maxPendingWrites = 10000;
+
+    public ReplicaReadOptions() {
+    }
+
+    /**
+     * @return interval at which the heartbeat is written to the master and read back from every replica
+     */
+    public long getHeartbeatIntervalMillis() {
+        return heartbeatIntervalMillis;
+    }
+
+    public void setHeartbeatIntervalMillis(long heartbeatIntervalMillis) {
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    /**
+     * @return maximum age of the data a replica may serve, negative to read from lagging replicas as well. Should
+     * be larger than the heartbeat interval, otherwise most reads go to the master
+     */
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    public void setMaxStalenessMillis(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * @return true to read the elements written by this client from the master until the replica has caught up
+     */
+    public boolean isReadYourWrites() {
+        return readYourWrites;
+    }
+
+    public void setReadYourWrites(boolean readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * @return maximum number of elements tracked for read-your-writes. Once reached, the tracked writes are
+     * forgotten and all reads go to the master until a replica has caught up with the last write
+     */
+    public int getMaxPendingWrites() {
+        return maxPendingWrites;
+    }
+
+    public void setMaxPendingWrites(int maxPendingWrites) {
+        this.maxPendingWrites = maxPendingWrites;
+    }
+}
@@ -0,0 +1,347 @@
+package com.charusmita.crdt.redis;
+
+import com.charusmita.crdt.ZSet;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.LongCodec;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplicaReadRedisSet is a {@link LastWriterWinsRedisSet} whose writes go to the master and whose reads are spread
+ * round robin over the Redis replicas of the master, so that read throughput grows with the number of replicas.
+ * <p/>
+ * A background task writes the time of a monotonic clock local to this client to a heartbeat key of its own on
+ * the master every {@link ReplicaReadOptions#getHeartbeatIntervalMillis()}, and reads it back from every replica.
+ * Since replication keeps the order of the writes, a replica which shows heartbeat h holds every write the master
+ * applied before h. As only this client writes and compares these times, clock skew between clients does not
+ * matter. A replica only serves reads while its heartbeat is at most
+ * {@link ReplicaReadOptions#getMaxStalenessMillis()} old, otherwise the read goes to the master. The heartbeat key
+ * expires after ten heartbeat intervals without a write, so the keys of stopped clients disappear.
+ * <p/>
+ * To keep read-your-writes, the set remembers when it last wrote each element. An element is read from the master
+ * until the chosen replica shows a later heartbeat, and {@link #getAllElements()} corrects the elements of the
+ * replica which are still behind with their state on the master, read in one round trip per set. A write is
+ * forgotten once every replica shows a later heartbeat, or once it is older than the maximum staleness, as a
+ * replica showing an older heartbeat cannot serve reads anyway. Beyond
+ * {@link ReplicaReadOptions#getMaxPendingWrites()} tracked elements, the writes are forgotten at once and all reads
+ * go to the master until a replica catches up with the last of them.
+ * <p/>
+ * Redisson's {@code ReadMode.SLAVE} also sends reads to replicas, but it cannot tell how stale a replica is nor
+ * send a single read to the master, so the master and every replica are given as separate clients.
+ *
+ * @param <T> Generic data type for element
+ */
+public class ReplicaReadRedisSet<T> implements ZSet<T>, Closeable {
+
+    private final LastWriterWinsRedisSet<T> master;
+    private final RBucket<Long> masterHeartbeat;
+    private final long origin = System.nanoTime();
+    private final List<Replica<T>> replicas = new ArrayList<>();
+    private final ReplicaReadOptions options;
+    private final ScheduledExecutorService executor;
+    private final Map<T, Long> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong masterReads = new AtomicLong();
+    private volatile long readBarrier = Long.MIN_VALUE;
+    private volatile RuntimeException lastHeartbeatError;
+
+    /**
+     * @param master        The Redisson client of the master
+     * @param replicas      One Redisson client per replica of the master
+     * @param addSetName    Name of the Add Set ZA in Redis
+     * @param removeSetName Name of the Remove Set ZR in Redis
+     * @param codec         Codec of the members of both sets
+     * @param options       Staleness and consistency settings
+     */
+    public ReplicaReadRedisSet(RedissonClient master, List<RedissonClient> replicas, String addSetName,
+                               String removeSetName, Codec codec, ReplicaReadOptions options) {
+        this.master = new LastWriterWinsRedisSet<>(master, addSetName, removeSetName, codec);
+        String heartbeatName = addSetName + ":heartbeat:" + UUID.randomUUID();
+        this.masterHeartbeat = master.getBucket(heartbeatName, LongCodec.INSTANCE);
+        for (RedissonClient replica : replicas) {
+            this.replicas.add(new Replica<>(new LastWriterWinsRedisSet<>(replica, addSetName, removeSetName, codec),
+                    replica.getBucket(heartbeatName, LongCodec.INSTANCE)));
+        }
+        this.options = options;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-heartbeat-" + addSetName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::heartbeat, 0, options.getHeartbeatIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public LastWriterWinsRedisSet<T> getMaster() {
+        return master;
+    }
+
+    /**
+     * @return the error of the last failed heartbeat write or replica heartbeat read, or null
+     */
+    public RuntimeException getLastHeartbeatError() {
+        return lastHeartbeatError;
+    }
+
+    /**
+     * @return the number of reads served by the master
+     */
+    public long getMasterReadCount() {
+        return masterReads.get();
+    }
+
+    /**
+     * @return the number of reads served by each replica, in the order of the replica clients
+     */
+    public long[] getReplicaReadCounts() {
+        long[] counts = new long[replicas.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = replicas.get(i).reads.get();
+        }
+        return counts;
+    }
+
+    /**
+     * @return the number of elements written by this client which a replica able to serve reads may not have caught
+     * up with yet
+     */
+    public int getPendingWriteCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     * <p/>
+     * With read-your-writes, reads go to the master until the replicas have caught up with the clear.
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public ReplicaReadRedisSet<T> newSet() {
+        master.newSet();
+        readBarrier = now();
+        pendingWrites.clear();
+        return this;
+    }
+
+    /**
+     * Adding an element with timestamp to the Add set ZA of CRDT
+     * If there is already an entry in ZA for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZA consisting of the element e and the given time t.
+     * <p/>
+     * The element is written to the master.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp/score to have a temporal ordering of elements
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int add(T element, int timestamp) {
+        int result = master.add(element, timestamp);
+        if (result != -1)
+            trackWrite(element);
+        return result;
+    }
+
+    /**
+     * Adding an element with timestamp to the Remove set ZR of CRDT
+     * If there is already an entry in ZR for e, its timestamp is set to t if t is more recent
+     * than the currently-stored timestamp.
+     * Otherwise, a new entry is inserted into ZR consisting of the element e and the given time t.
+     * <p/>
+     * The element is written to the master.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp/score to have a temporal ordering of elements
+     * @return the timestamp if successfully added or -1 for already existing element
+     */
+    @Override
+    public int remove(T element, int timestamp) {
+        int result = master.remove(element, timestamp);
+        if (result != -1)
+            trackWrite(element);
+        return result;
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     * <p/>
+     * The element is read from a fresh enough replica, or from the master if there is none or if the replica has
+     * not caught up with a write of this client to the element.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public boolean exists(T element) {
+        Replica<T> replica = chooseReplica();
+        if (replica == null || isBehind(replica, element)) {
+            masterReads.incrementAndGet();
+            return master.exists(element);
+        }
+        replica.reads.incrementAndGet();
+        return replica.set.exists(element);
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     * <p/>
+     * The sets are read from a fresh enough replica, or from the master if there is none. The elements written by
+     * this client which the replica has not caught up with are read from the master.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public Set<T> getAllElements() {
+        Replica<T> replica = chooseReplica();
+        if (replica == null) {
+            masterReads.incrementAndGet();
+            return master.getAllElements();
+        }
+        replica.reads.incrementAndGet();
+        Set<T> elements = replica.set.getAllElements();
+        if (!options.isReadYourWrites())
+            return elements;
+        List<T> behind = new ArrayList<>();
+        for (T element : pendingWrites.keySet()) {
+            if (isBehind(replica, element))
+                behind.add(element);
+        }
+        if (behind.isEmpty())
+            return elements;
+        List<Double> addScores = master.getAddSet().getScore(behind);
+        List<Double> removeScores = master.getRemoveSet().getScore(behind);
+        for (int i = 0; i < behind.size(); i++) {
+            Double addScore = addScores.get(i);
+            Double removeScore = removeScores.get(i);
+            if (addScore != null && (removeScore == null || addScore > removeScore))
+                elements.add(behind.get(i));
+            else
+                elements.remove(behind.get(i));
+        }
+        return elements;
+    }
+
+    /**
+     * Stops the heartbeat. The Redisson clients are not shut down
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void trackWrite(T element) {
+        if (!options.isReadYourWrites())
+            return;
+        long writtenAt = now();
+        if (pendingWrites.size() >= options.getMaxPendingWrites()) {
+            readBarrier = writtenAt;
+            pendingWrites.clear();
+            return;
+        }
+        pendingWrites.put(element, writtenAt);
+    }
+
+    /**
+     * @return the nanoseconds since this set was created, plus one, so that times are positive and comparable
+     */
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    /**
+     * @return true if the replica may not show the last write of this client to the element yet
+     */
+    private boolean isBehind(Replica<T> replica, T element) {
+        if (!options.isReadYourWrites())
+            return false;
+        Long writtenAt = pendingWrites.get(element);
+        return writtenAt != null && replica.heartbeat <= writtenAt;
+    }
+
+    /**
+     * @return the next replica in round robin order which is fresh enough, or null if there is none
+     */
+    private Replica<T> chooseReplica() {
+        int count = replicas.size();
+        if (count == 0)
+            return null;
+        long now = now();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica<T> replica = replicas.get((start + i) % count);
+            if (isFresh(replica, now))
+                return replica;
+        }
+        return null;
+    }
+
+    private boolean isFresh(Replica<T> replica, long now) {
+        long heartbeat = replica.heartbeat;
+        if (options.isReadYourWrites() && heartbeat <= readBarrier)
+            return false;
+        if (options.getMaxStalenessMillis() < 0)
+            return true;
+        return heartbeat != Long.MIN_VALUE
+                && now - heartbeat <= TimeUnit.MILLISECONDS.toNanos(options.getMaxStalenessMillis());
+    }
+
+    private void heartbeat() {
+        try {
+            masterHeartbeat.set(now(), 10 * options.getHeartbeatIntervalMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            lastHeartbeatError = e;
+        }
+        long caughtUp = Long.MAX_VALUE;
+        for (Replica<T> replica : replicas) {
+            try {
+                Long heartbeat = replica.heartbeatBucket.get();
+                if (heartbeat != null && heartbeat > replica.heartbeat)
+                    replica.heartbeat = heartbeat;
+            } catch (RuntimeException e) {
+                lastHeartbeatError = e;
+            }
+            caughtUp = Math.min(caughtUp, replica.heartbeat);
+        }
+        if (options.getMaxStalenessMillis() >= 0)
+            caughtUp = Math.max(caughtUp, now() - TimeUnit.MILLISECONDS.toNanos(options.getMaxStalenessMillis()));
+        for (Map.Entry<T, Long> entry : pendingWrites.entrySet()) {
+            if (entry.getValue() < caughtUp)
+                pendingWrites.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static final class Replica<T> {
+
+        final LastWriterWinsRedisSet<T> set;
+        final RBucket<Long> heartbeatBucket;
+        final AtomicLong reads = new AtomicLong();
+        volatile long heartbeat = Long.MIN_VALUE;
+
+        Replica(LastWriterWinsRedisSet<T> set, RBucket<Long> heartbeatBucket) {
+            this.set = set;
+            this.heartbeatBucket = heartbeatBucket;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.charusmita.crdt.redis;
+
+/**
+ * WriteBehindOptions holds the flush thresholds and durability settings of a {@link WriteBehindRedisSet}
+ */
+public class WriteBehindOptions {
+
+    /**
+     * What a writer waits for when the buffer reaches its size threshold
+     */
+    public enum FlushGuarantee {
+        /**
+         * Writers never wait, the flush runs in the background. Buffered writes are lost if the process dies
+         */
+        ASYNC,
+        /**
+         * The writer which fills the buffer waits until its flush is done, which bounds the writes that can be
+         * lost to the buffer size and pushes back on producers faster than Redis
+         */
+        WAIT_WHEN_FULL
+    }
+
+    private int maxBufferedElements = 1000;
+    private long flushIntervalMillis = 100;
+    private FlushGuarantee flushGuarantee = FlushGuarantee.ASYNC;
+    private boolean atomic;
+    private int syncReplicas;
+    private long syncTimeoutMillis = 1000;
+
+    public WriteBehindOptions() {
+    }
+
+    /**
+     * @return number of buffered elements (per side) which triggers a flush
+     */
+    public int getMaxBufferedElements() {
+        return maxBufferedElements;
+    }
+
+    public void setMaxBufferedElements(int maxBufferedElements) {
+        this.maxBufferedElements = maxBufferedElements;
+    }
+
+    /**
+     * @return maximum time a write stays in the buffer before it is flushed
+     */
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public FlushGuarantee getFlushGuarantee() {
+        return flushGuarantee;
+    }
+
+    public void setFlushGuarantee(FlushGuarantee flushGuarantee) {
+        this.flushGuarantee = flushGuarantee;
+    }
+
+    /**
+     * @return true to apply each flush atomically in a MULTI/EXEC transaction
+     */
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    /**
+     * @return number of Redis replicas a flush must reach before it completes (WAIT), 0 to not wait
+     */
+    public int getSyncReplicas() {
+        return syncReplicas;
+    }
+
+    public void setSyncReplicas(int syncReplicas) {
+        this.syncReplicas = syncReplicas;
+    }
+
+    public long getSyncTimeoutMillis() {
+        return syncTimeoutMillis;
+    }
+
+    public void setSyncTimeoutMillis(long syncTimeoutMillis) {
+        this.syncTimeoutMillis = syncTimeoutMillis;
+    }
+}
@@ -0,0 +1,392 @@
+package com.charusmita.crdt.redis;
+
+import com.charusmita.crdt.ZSet;
+import io.netty.buffer.ByteBuf;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.ScoredEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriteBehindRedisSet buffers the writes to a {@link LastWriterWinsRedisSet} locally and flushes them to Redis in
+ * the background.
+ * <p/>
+ * The buffer keeps only the most recent timestamp per element and side, so bursts of writes to the same elements
+ * collapse into one member per side. A flush is triggered when a side holds
+ * {@link WriteBehindOptions#getMaxBufferedElements()} elements or every
+ * {@link WriteBehindOptions#getFlushIntervalMillis()}, and sends both sides in one pipelined batch. Each side is
+ * written by a Lua script which only raises scores, so concurrent writers still converge to the most recent
+ * timestamp.
+ * <p/>
+ * Reads combine the buffered and in-flight writes with the scores stored in Redis, so a client always sees its
+ * own writes.
+ * <p/>
+ * If the wrapped set has a {@link com.charusmita.crdt.MembershipFilter}, the flushed adds are put into it once the
+ * batch is stored, so the filter of the set never misses an element written through this class.
+ *
+ * @param <T> Generic data type for element
+ */
+public class WriteBehindRedisSet<T> implements ZSet<T>, Closeable {
+
+    private static final String MAX_SCORE_SCRIPT =
+            "local applied = 0 "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "local current = redis.call('zscore', KEYS[1], ARGV[i + 1]) "
+                    + "if (not current) or tonumber(current) < tonumber(ARGV[i]) then "
+                    + "redis.call('zadd', KEYS[1], ARGV[i], ARGV[i + 1]) "
+                    + "applied = applied + 1 "
+                    + "end "
+                    + "end "
+                    + "return applied";
+
+    private final RedissonClient redisson;
+    private final LastWriterWinsRedisSet<T> set;
+    private final WriteBehindOptions options;
+    private final ScheduledExecutorService executor;
+
+    private Map<T, Integer> bufferedAdds = new HashMap<>();
+    private Map<T, Integer> bufferedRemoves = new HashMap<>();
+    private Map<T, Integer> flushingAdds = Collections.emptyMap();
+    private Map<T, Integer> flushingRemoves = Collections.emptyMap();
+    private volatile RuntimeException lastFlushError;
+
+    /**
+     * @param redisson The Redisson client the set was created with
+     * @param set      The set the buffered writes are flushed to
+     * @param options  Flush thresholds and durability settings
+     */
+    public WriteBehindRedisSet(RedissonClient redisson, LastWriterWinsRedisSet<T> set, WriteBehindOptions options) {
+        this.redisson = redisson;
+        this.set = set;
+        this.options = options;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-" + set.getAddSet().getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flushInBackground, options.getFlushIntervalMillis(),
+                options.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public LastWriterWinsRedisSet<T> getSet() {
+        return set;
+    }
+
+    /**
+     * @return the error of the last failed background flush, or null. The writes of a failed flush are kept in
+     * the buffer and retried by the next flush
+     */
+    public RuntimeException getLastFlushError() {
+        return lastFlushError;
+    }
+
+    /**
+     * @return the number of buffered elements on both sides, not counting a flush in progress
+     */
+    public synchronized int getBufferedCount() {
+        return bufferedAdds.size() + bufferedRemoves.size();
+    }
+
+    /**
+     * Returns the newly created calling Set. Or if the calling set is not empty, the contents from the Add Set ZA
+     * and the contents from the Remove Set ZR are cleared and then the current set is returned
+     * <p/>
+     * Runs on the flush thread, after a flush in progress, so that writes merged back by a failed flush are
+     * discarded together with the buffered ones before the sets are cleared.
+     *
+     * @return the (cleared/emptied) calling Set
+     */
+    @Override
+    public WriteBehindRedisSet<T> newSet() {
+        await(executor.submit(() -> {
+            synchronized (this) {
+                bufferedAdds = new HashMap<>();
+                bufferedRemoves = new HashMap<>();
+            }
+            set.newSet();
+        }));
+        return this;
+    }
+
+    /**
+     * Buffers an element with timestamp for the Add set ZA of CRDT
+     * If there is already a buffered entry for e, its timestamp is set to t if t is more recent.
+     * <p/>
+     * Redis is not queried, so -1 is only returned if a more recent add of the element is buffered. Stale
+     * writes are discarded by the flush.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp/score to have a temporal ordering of elements
+     * @return the timestamp if successfully buffered or -1 for a more recent buffered element
+     */
+    @Override
+    public int add(T element, int timestamp) {
+        return buffer(true, element, timestamp);
+    }
+
+    /**
+     * Buffers an element with timestamp for the Remove set ZR of CRDT
+     * If there is already a buffered entry for e, its timestamp is set to t if t is more recent.
+     * <p/>
+     * Redis is not queried, so -1 is only returned if a more recent remove of the element is buffered. Stale
+     * writes are discarded by the flush.
+     *
+     * @param element   Element which needs to be stored in the set
+     * @param timestamp The timestamp/score to have a temporal ordering of elements
+     * @return the timestamp if successfully buffered or -1 for a more recent buffered element
+     */
+    @Override
+    public int remove(T element, int timestamp) {
+        return buffer(false, element, timestamp);
+    }
+
+    /**
+     * An element e is in the CRDT set, if the element e is in both Add Set ZA and Remove Set ZR.
+     * If the timestamp of the entry from ZA is more recent than that of the entry from ZR, the
+     * element is in the set.
+     * If the element isn’t present, or the entry from ZR is newer than that from ZA, the element
+     * is not in the set.
+     * <p/>
+     * The buffered timestamps are combined with both scores, which are read in one pipelined call.
+     *
+     * @param element Element whose presence needs to be checked in the set
+     * @return true if element is present according to above mentioned conditions otherwise false
+     */
+    @Override
+    public boolean exists(T element) {
+        Integer addTimestamp;
+        Integer removeTimestamp;
+        synchronized (this) {
+            addTimestamp = max(bufferedAdds.get(element), flushingAdds.get(element));
+            removeTimestamp = max(bufferedRemoves.get(element), flushingRemoves.get(element));
+        }
+
+        RBatch batch = redisson.createBatch();
+        RFuture<Double> addScore = batchSet(batch, set.getAddSet().getName()).getScoreAsync(element);
+        RFuture<Double> removeScore = batchSet(batch, set.getRemoveSet().getName()).getScoreAsync(element);
+        batch.execute();
+
+        addTimestamp = max(addTimestamp, toTimestamp(addScore.getNow()));
+        removeTimestamp = max(removeTimestamp, toTimestamp(removeScore.getNow()));
+        if (addTimestamp != null && removeTimestamp != null) {
+            return addTimestamp > removeTimestamp;
+        }
+        return false;
+    }
+
+    /**
+     * For getting all the contents of the calling CRDT set, both AddSet ZA and RemoveSet ZR are
+     * scanned, selecting only those elements that are present in ZA without also being present in ZR,
+     * or where the timestamp for the element in ZA is newer than the timestamp for the element in ZR.
+     * <p/>
+     * Both sets are read with their scores in one pipelined call and combined with the buffered timestamps.
+     *
+     * @return a Set of all elements of data type T which are present in the calling set
+     */
+    @Override
+    public Set<T> getAllElements() {
+        Map<T, Integer> adds = new HashMap<>();
+        Map<T, Integer> removes = new HashMap<>();
+        synchronized (this) {
+            mergeMax(adds, flushingAdds);
+            mergeMax(adds, bufferedAdds);
+            mergeMax(removes, flushingRemoves);
+            mergeMax(removes, bufferedRemoves);
+        }
+
+        RBatch batch = redisson.createBatch();
+        RFuture<Collection<ScoredEntry<T>>> addEntries = batchSet(batch, set.getAddSet().getName())
+                .entryRangeAsync(0, -1);
+        RFuture<Collection<ScoredEntry<T>>> removeEntries = batchSet(batch, set.getRemoveSet().getName())
+                .entryRangeAsync(0, -1);
+        batch.execute();
+        addEntries.getNow().forEach(entry -> adds.merge(entry.getValue(), toTimestamp(entry.getScore()), Math::max));
+        removeEntries.getNow().forEach(entry ->
+                removes.merge(entry.getValue(), toTimestamp(entry.getScore()), Math::max));
+
+        Set<T> elements = new HashSet<>();
+        adds.forEach((element, addTimestamp) -> {
+            Integer removeTimestamp = removes.get(element);
+            if (removeTimestamp == null || addTimestamp > removeTimestamp)
+                elements.add(element);
+        });
+        return elements;
+    }
+
+    /**
+     * Flushes all buffered writes and waits until they are stored in Redis
+     */
+    public void flush() {
+        await(executor.submit(this::flushBuffer));
+    }
+
+    /**
+     * Flushes all buffered writes and stops the background flushes
+     */
+    @Override
+    public void close() {
+        flush();
+        executor.shutdown();
+    }
+
+    private int buffer(boolean add, T element, int timestamp) {
+        boolean full;
+        synchronized (this) {
+            Map<T, Integer> buffered = add ? bufferedAdds : bufferedRemoves;
+            Integer current = max(buffered.get(element), (add ? flushingAdds : flushingRemoves).get(element));
+            if (current != null && current >= timestamp)
+                return -1;
+            buffered.put(element, timestamp);
+            full = buffered.size() >= options.getMaxBufferedElements();
+        }
+        if (full) {
+            if (options.getFlushGuarantee() == WriteBehindOptions.FlushGuarantee.WAIT_WHEN_FULL)
+                flush();
+            else
+                executor.execute(this::flushInBackground);
+        }
+        return timestamp;
+    }
+
+    private void flushInBackground() {
+        try {
+            flushBuffer();
+        } catch (RuntimeException e) {
+            lastFlushError = e;
+        }
+    }
+
+    /**
+     * Moves the buffer to in-flight and sends it in one batch. Runs on the flush thread only, so there is at most
+     * one flush in progress. If the batch fails the in-flight writes are merged back into the buffer, otherwise
+     * the flushed adds are put into the filter of the set, after ZA was written like {@link LastWriterWinsRedisSet}
+     * does.
+     */
+    private void flushBuffer() {
+        Map<T, Integer> adds;
+        Map<T, Integer> removes;
+        synchronized (this) {
+            if (bufferedAdds.isEmpty() && bufferedRemoves.isEmpty())
+                return;
+            adds = flushingAdds = bufferedAdds;
+            removes = flushingRemoves = bufferedRemoves;
+            bufferedAdds = new HashMap<>();
+            bufferedRemoves = new HashMap<>();
+        }
+
+        boolean flushed = false;
+        try {
+            BatchOptions batchOptions = BatchOptions.defaults();
+            if (options.isAtomic())
+                batchOptions.executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC);
+            if (options.getSyncReplicas() > 0)
+                batchOptions.syncSlaves(options.getSyncReplicas(), options.getSyncTimeoutMillis(),
+                        TimeUnit.MILLISECONDS);
+            RBatch batch = redisson.createBatch(batchOptions);
+            RScript script = batch.getScript(ByteArrayCodec.INSTANCE);
+            if (!adds.isEmpty())
+                script.evalAsync(RScript.Mode.READ_WRITE, MAX_SCORE_SCRIPT, RScript.ReturnType.INTEGER,
+                        Collections.singletonList(set.getAddSet().getName()), scriptArguments(adds));
+            if (!removes.isEmpty())
+                script.evalAsync(RScript.Mode.READ_WRITE, MAX_SCORE_SCRIPT, RScript.ReturnType.INTEGER,
+                        Collections.singletonList(set.getRemoveSet().getName()), scriptArguments(removes));
+            batch.execute();
+            flushed = true;
+            lastFlushError = null;
+            if (set.getFilter() != null)
+                adds.keySet().forEach(set.getFilter()::put);
+        } finally {
+            synchronized (this) {
+                if (!flushed) {
+                    mergeMax(bufferedAdds, adds);
+                    mergeMax(bufferedRemoves, removes);
+                }
+                flushingAdds = Collections.emptyMap();
+                flushingRemoves = Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * Score and member of every element, the members encoded with the codec of the set
+     */
+    private Object[] scriptArguments(Map<T, Integer> timestamps) {
+        Codec codec = set.getAddSet().getCodec();
+        Object[] arguments = new Object[timestamps.size() * 2];
+        int i = 0;
+        for (Map.Entry<T, Integer> entry : timestamps.entrySet()) {
+            arguments[i++] = Integer.toString(entry.getValue()).getBytes(StandardCharsets.US_ASCII);
+            arguments[i++] = encode(codec, entry.getKey());
+        }
+        return arguments;
+    }
+
+    private static byte[] encode(Codec codec, Object element) {
+        try {
+            ByteBuf buf = codec.getValueEncoder().encode(element);
+            try {
+                byte[] bytes = new byte[buf.readableBytes()];
+                buf.readBytes(bytes);
+                return bytes;
+            } finally {
+                buf.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RScoredSortedSetAsync<T> batchSet(RBatch batch, String name) {
+        return batch.getScoredSortedSet(name, set.getAddSet().getCodec());
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the flush", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Flush to Redis failed", e.getCause());
+        }
+    }
+
+    private static <T> void mergeMax(Map<T, Integer> target, Map<T, Integer> source) {
+        source.forEach((element, timestamp) -> target.merge(element, timestamp, Math::max));
+    }
+
+    private static Integer max(Integer first, Integer second) {
+        if (first == null)
+            return second;
+        if (second == null)
+            return first;
+        return Math.max(first, second);
+    }
+
+    private static Integer toTimestamp(Double score) {
+        return score == null ? null : score.intValue();
+    }
+}
@@ -0,0 +1,237 @@
+package com.charusmita.crdt.simulation;
+
+import com.charusmita.crdt.DictionaryEncodedLastWriterWinsSet;
+import com.charusmita.crdt.ElementDictionary;
+import com.charusmita.crdt.LastWriterWinsSet;
+import com.charusmita.crdt.PersistentLastWriterWinsSet;
+import com.charusmita.crdt.ZSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * ConvergenceSimulator runs several replicas of a {@link com.charusmita.crdt.ZSet} implementation in one process.
+ * <p/>
+ * On every tick each replica performs random adds and removes, timestamped with its own skewed clock, and sends
+ * every operation to all other replicas as a message with a random delay. Messages are delivered when due and in
+ * random order, and every sync interval all pending messages are delivered at once. After the last tick the
+ * remaining messages are delivered and the replicas are checked to return identical getAllElements().
+ *
+ * @param <T> Generic data type for element
+ */
+public class ConvergenceSimulator<T> {
+
+    private final SimulationConfig config;
+    private final Supplier<? extends ZSet<T>> replicaFactory;
+    private final IntFunction<T> elementFactory;
+
+    /**
+     * @param config         Parameters of the run
+     * @param replicaFactory Creates one empty replica per call
+     * @param elementFactory Maps a key in [0, keySpace) to the element of that key
+     */
+    public ConvergenceSimulator(SimulationConfig config, Supplier<? extends ZSet<T>> replicaFactory,
+                                IntFunction<T> elementFactory) {
+        this.config = config;
+        this.replicaFactory = replicaFactory;
+        this.elementFactory = elementFactory;
+    }
+
+    public SimulationReport run() {
+        Random random = new Random(config.getSeed());
+        long memoryBefore = usedMemory();
+
+        List<ZSet<T>> replicas = new ArrayList<>();
+        int[] clockSkew = new int[config.getReplicas()];
+        for (int r = 0; r < config.getReplicas(); r++) {
+            replicas.add(replicaFactory.get().newSet());
+            clockSkew[r] = config.getMaxClockSkew() == 0 ? 0
+                    : random.nextInt(2 * config.getMaxClockSkew() + 1) - config.getMaxClockSkew();
+        }
+
+        PriorityQueue<Message<T>> pending = new PriorityQueue<>(Comparator
+                .<Message<T>>comparingInt(message -> message.deliverAt)
+                .thenComparingLong(message -> message.order));
+        long localOps = 0;
+        long bytesExchanged = 0;
+        long[] remoteOps = new long[1];
+
+        long start = System.nanoTime();
+        int tick = 0;
+        for (; tick < config.getTicks(); tick++) {
+            for (int r = 0; r < replicas.size(); r++) {
+                for (int i = 0; i < config.getOpsPerTick(); i++) {
+                    T element = elementFactory.apply(random.nextInt(config.getKeySpace()));
+                    boolean add = random.nextDouble() < config.getAddRatio();
+                    int timestamp = Math.max(0, tick + clockSkew[r]);
+                    apply(replicas.get(r), element, timestamp, add);
+                    localOps++;
+
+                    int size = encodedSize(element);
+                    for (int other = 0; other < replicas.size(); other++) {
+                        if (other == r)
+                            continue;
+                        int delay = random.nextInt(config.getMaxDelay() + 1);
+                        pending.add(new Message<>(other, element, timestamp, add, tick + delay, random.nextLong()));
+                        bytesExchanged += size;
+                    }
+                }
+            }
+            boolean sync = config.getSyncInterval() > 0 && (tick + 1) % config.getSyncInterval() == 0;
+            deliver(pending, replicas, sync ? Integer.MAX_VALUE : tick, remoteOps);
+        }
+        long opsEnd = System.nanoTime();
+
+        int convergenceTicks = 0;
+        while (!pending.isEmpty()) {
+            deliver(pending, replicas, tick + convergenceTicks, remoteOps);
+            convergenceTicks++;
+        }
+        long convergenceEnd = System.nanoTime();
+
+        Set<T> reference = replicas.get(0).getAllElements();
+        boolean converged = replicas.stream().allMatch(replica -> replica.getAllElements().equals(reference));
+
+        long memoryPerReplica = Math.max(0, usedMemory() - memoryBefore) / replicas.size();
+        double seconds = (convergenceEnd - start) / 1e9;
+        return new SimulationReport(replicas.get(0).getClass().getSimpleName(), localOps, remoteOps[0],
+                (localOps + remoteOps[0]) / seconds, convergenceTicks, (convergenceEnd - opsEnd) / 1e6,
+                bytesExchanged, memoryPerReplica, reference.size(), converged);
+    }
+
+    private void deliver(PriorityQueue<Message<T>> pending, List<ZSet<T>> replicas, int untilTick, long[] remoteOps) {
+        while (!pending.isEmpty() && pending.peek().deliverAt <= untilTick) {
+            Message<T> message = pending.poll();
+            apply(replicas.get(message.replica), message.element, message.timestamp, message.add);
+            remoteOps[0]++;
+        }
+    }
+
+    private void apply(ZSet<T> replica, T element, int timestamp, boolean add) {
+        if (add)
+            replica.add(element, timestamp);
+        else
+            replica.remove(element, timestamp);
+    }
+
+    /**
+     * Size of an operation on the wire: one byte for the side, four for the timestamp and the encoded element
+     */
+    private static int encodedSize(Object element) {
+        if (element instanceof String)
+            return 5 + 2 + ((String) element).getBytes(StandardCharsets.UTF_8).length;
+        if (element instanceof Integer)
+            return 5 + 4;
+        if (element instanceof Long)
+            return 5 + 8;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(element);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Element is not serializable: " + element, e);
+        }
+        return 5 + bytes.size();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class Message<T> {
+
+        final int replica;
+        final T element;
+        final int timestamp;
+        final boolean add;
+        final int deliverAt;
+        final long order;
+
+        Message(int replica, T element, int timestamp, boolean add, int deliverAt, long order) {
+            this.replica = replica;
+            this.element = element;
+            this.timestamp = timestamp;
+            this.add = add;
+            this.deliverAt = deliverAt;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Runs the simulator headless for the in-memory implementations and prints one report line per implementation.
+     * Arguments are optional key=value pairs named after the {@link SimulationConfig} properties,
+     * e.g. {@code replicas=5 ticks=500 maxDelay=20}. Exits with status 1 if any implementation did not converge.
+     *
+     * @param args key=value pairs overriding the default configuration
+     */
+    public static void main(String[] args) {
+        SimulationConfig config = parse(args);
+        System.out.println("Simulation: " + config);
+
+        List<SimulationReport> reports = new ArrayList<>();
+        reports.add(new ConvergenceSimulator<>(config, LastWriterWinsSet<String>::new,
+                key -> "element-" + key).run());
+        reports.add(new ConvergenceSimulator<>(config, PersistentLastWriterWinsSet<String>::new,
+                key -> "element-" + key).run());
+        ElementDictionary<String> dictionary = new ElementDictionary<>();
+        reports.add(new ConvergenceSimulator<>(config, () -> new DictionaryEncodedLastWriterWinsSet<>(dictionary),
+                key -> "element-" + key).run());
+
+        reports.forEach(System.out::println);
+        if (reports.stream().anyMatch(report -> !report.isConverged()))
+            System.exit(1);
+    }
+
+    private static SimulationConfig parse(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            switch (pair[0]) {
+                case "replicas":
+                    config.setReplicas(Integer.parseInt(pair[1]));
+                    break;
+                case "ticks":
+                    config.setTicks(Integer.parseInt(pair[1]));
+                    break;
+                case "opsPerTick":
+                    config.setOpsPerTick(Integer.parseInt(pair[1]));
+                    break;
+                case "keySpace":
+                    config.setKeySpace(Integer.parseInt(pair[1]));
+                    break;
+                case "addRatio":
+                    config.setAddRatio(Double.parseDouble(pair[1]));
+                    break;
+                case "maxClockSkew":
+                    config.setMaxClockSkew(Integer.parseInt(pair[1]));
+                    break;
+                case "maxDelay":
+                    config.setMaxDelay(Integer.parseInt(pair[1]));
+                    break;
+                case "syncInterval":
+                    config.setSyncInterval(Integer.parseInt(pair[1]));
+                    break;
+                case "seed":
+                    config.setSeed(Long.parseLong(pair[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown simulation parameter: " + pair[0]);
+            }
+        }
+        return config;
+    }
+}
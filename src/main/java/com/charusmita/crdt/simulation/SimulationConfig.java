@@ -0,0 +1,128 @@
+package com.charusmita.crdt.simulation;
+
+/**
+ * SimulationConfig holds the parameters of a {@link ConvergenceSimulator} run.
+ * Timestamps and delays are expressed in simulation ticks.
+ */
+public class SimulationConfig {
+
+    private int replicas = 3;
+    private int ticks = 200;
+    private int opsPerTick = 10;
+    private int keySpace = 1000;
+    private double addRatio = 0.7;
+    private int maxClockSkew = 5;
+    private int maxDelay = 10;
+    private int syncInterval = 50;
+    private long seed = 42;
+
+    public SimulationConfig() {
+    }
+
+    /**
+     * @return number of replicas of the set
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(int replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * @return number of ticks during which the replicas perform local operations
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    public void setTicks(int ticks) {
+        this.ticks = ticks;
+    }
+
+    /**
+     * @return number of local operations every replica performs per tick
+     */
+    public int getOpsPerTick() {
+        return opsPerTick;
+    }
+
+    public void setOpsPerTick(int opsPerTick) {
+        this.opsPerTick = opsPerTick;
+    }
+
+    /**
+     * @return number of distinct elements operations are drawn from
+     */
+    public int getKeySpace() {
+        return keySpace;
+    }
+
+    public void setKeySpace(int keySpace) {
+        this.keySpace = keySpace;
+    }
+
+    /**
+     * @return fraction of operations which are adds, the others are removes
+     */
+    public double getAddRatio() {
+        return addRatio;
+    }
+
+    public void setAddRatio(double addRatio) {
+        this.addRatio = addRatio;
+    }
+
+    /**
+     * @return maximum offset of a replica clock from the simulation tick, in both directions
+     */
+    public int getMaxClockSkew() {
+        return maxClockSkew;
+    }
+
+    public void setMaxClockSkew(int maxClockSkew) {
+        this.maxClockSkew = maxClockSkew;
+    }
+
+    /**
+     * @return maximum number of ticks an operation takes to reach another replica. Messages with different
+     * delays are delivered out of order, messages due in the same tick are delivered in random order
+     */
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(int maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @return number of ticks between two sync rounds which deliver all pending messages, 0 to never sync
+     */
+    public int getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(int syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * @return seed of the random generator, runs with the same seed perform the same operations
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "replicas=" + replicas + " ticks=" + ticks + " opsPerTick=" + opsPerTick + " keySpace=" + keySpace
+                + " addRatio=" + addRatio + " maxClockSkew=" + maxClockSkew + " maxDelay=" + maxDelay
+                + " syncInterval=" + syncInterval + " seed=" + seed;
+    }
+}
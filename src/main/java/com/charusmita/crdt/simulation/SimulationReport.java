@@ -0,0 +1,111 @@
+package com.charusmita.crdt.simulation;
+
+/**
+ * SimulationReport holds the measurements of a {@link ConvergenceSimulator} run
+ */
+public class SimulationReport {
+
+    private final String implementation;
+    private final long localOps;
+    private final long remoteOps;
+    private final double opsPerSecond;
+    private final int convergenceTicks;
+    private final double convergenceMillis;
+    private final long bytesExchanged;
+    private final long memoryPerReplica;
+    private final int elements;
+    private final boolean converged;
+
+    public SimulationReport(String implementation, long localOps, long remoteOps, double opsPerSecond,
+                            int convergenceTicks, double convergenceMillis, long bytesExchanged,
+                            long memoryPerReplica, int elements, boolean converged) {
+        this.implementation = implementation;
+        this.localOps = localOps;
+        this.remoteOps = remoteOps;
+        this.opsPerSecond = opsPerSecond;
+        this.convergenceTicks = convergenceTicks;
+        this.convergenceMillis = convergenceMillis;
+        this.bytesExchanged = bytesExchanged;
+        this.memoryPerReplica = memoryPerReplica;
+        this.elements = elements;
+        this.converged = converged;
+    }
+
+    /**
+     * @return simple class name of the simulated set
+     */
+    public String getImplementation() {
+        return implementation;
+    }
+
+    /**
+     * @return number of operations performed locally by all replicas
+     */
+    public long getLocalOps() {
+        return localOps;
+    }
+
+    /**
+     * @return number of operations received from other replicas and applied
+     */
+    public long getRemoteOps() {
+        return remoteOps;
+    }
+
+    /**
+     * @return local and remote operations applied per second of wall clock time
+     */
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    /**
+     * @return number of ticks after the last local operation until all messages were delivered
+     */
+    public int getConvergenceTicks() {
+        return convergenceTicks;
+    }
+
+    /**
+     * @return wall clock time after the last local operation until all messages were delivered
+     */
+    public double getConvergenceMillis() {
+        return convergenceMillis;
+    }
+
+    /**
+     * @return encoded size of all messages sent between replicas
+     */
+    public long getBytesExchanged() {
+        return bytesExchanged;
+    }
+
+    /**
+     * @return approximate heap used per replica, measured from the used heap after garbage collection
+     */
+    public long getMemoryPerReplica() {
+        return memoryPerReplica;
+    }
+
+    /**
+     * @return number of elements in the set of the first replica at the end of the run
+     */
+    public int getElements() {
+        return elements;
+    }
+
+    /**
+     * @return true if all replicas returned identical getAllElements() at the end of the run
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: converged=%s elements=%d localOps=%d remoteOps=%d ops/sec=%.0f "
+                        + "convergenceTicks=%d convergenceMillis=%.2f bytesExchanged=%d memoryPerReplica=%d",
+                implementation, converged, elements, localOps, remoteOps, opsPerSecond, convergenceTicks,
+                convergenceMillis, bytesExchanged, memoryPerReplica);
+    }
+}
@@ -0,0 +1,99 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitmapLastWriterWinsSetTest {
+
+    /**
+     * Test to check elements existing only in AddSet and RemoveSet as well.
+     * Returns all elements whose timestamp of add is more recent than that of remove.
+     */
+    @Test
+    public void getAllElements_WithElementsOnlyInAddSet_ReturnsElements() {
+        //prepare
+        BitmapLastWriterWinsSet bitmapSet = new BitmapLastWriterWinsSet();
+        Set<Integer> actualSet = Stream.of(2, 4).collect(Collectors.toSet());
+
+        bitmapSet.add(1, 1);
+        bitmapSet.add(2, 3);
+        bitmapSet.add(4, 6);
+        bitmapSet.remove(3, 2);
+        bitmapSet.remove(1, 5);
+
+        //act
+        Set<Integer> expectedSet = bitmapSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+        assertEquals(2, bitmapSet.cardinality());
+        assertEquals(-1, bitmapSet.add(2, 2));
+        assertFalse(bitmapSet.exists(1));
+        assertFalse(bitmapSet.exists(2));
+    }
+
+    /**
+     * Test that random operations over a dense range, a sparse range and negative elements give the same
+     * results as the reference set
+     */
+    @Test
+    public void addRemove_RandomOperations_SameAsReferenceSet() {
+        //prepare
+        BitmapLastWriterWinsSet bitmapSet = new BitmapLastWriterWinsSet();
+        PersistentLastWriterWinsSet<Integer> reference = new PersistentLastWriterWinsSet<>();
+        Random random = new Random(3);
+
+        //act
+        for (int i = 0; i < 100000; i++) {
+            int element;
+            switch (random.nextInt(3)) {
+                case 0:
+                    element = random.nextInt(10000);
+                    break;
+                case 1:
+                    element = -random.nextInt(500);
+                    break;
+                default:
+                    element = random.nextInt(1 << 24);
+            }
+            int timestamp = random.nextInt(1000);
+            if (random.nextInt(3) == 0)
+                assertEquals(reference.remove(element, timestamp), bitmapSet.remove(element, timestamp));
+            else
+                assertEquals(reference.add(element, timestamp), bitmapSet.add(element, timestamp));
+        }
+
+        //assert
+        Set<Integer> elements = reference.getAllElements();
+        assertEquals(elements, bitmapSet.getAllElements());
+        assertEquals(elements.size(), bitmapSet.cardinality());
+        Set<Integer> visited = new HashSet<>();
+        bitmapSet.forEachElement(visited::add);
+        assertEquals(elements, visited);
+        for (int element = -500; element < 10000; element++) {
+            assertEquals(reference.exists(element), bitmapSet.exists(element));
+        }
+    }
+
+    /**
+     * Test that the reserved Integer.MIN_VALUE timestamp is rejected
+     */
+    @Test
+    public void add_MinValueTimestamp_ThrowsException() {
+        //prepare
+        BitmapLastWriterWinsSet bitmapSet = new BitmapLastWriterWinsSet();
+        bitmapSet.add(1, 1);
+
+        //act & assert
+        assertThrows(IllegalArgumentException.class, () -> bitmapSet.add(1, Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> bitmapSet.remove(1, Integer.MIN_VALUE));
+        assertTrue(bitmapSet.isLive(1));
+    }
+}
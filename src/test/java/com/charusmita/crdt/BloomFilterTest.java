@@ -0,0 +1,72 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    /**
+     * Test that every element put into the {@link com.charusmita.crdt.BloomFilter} is reported as
+     * possibly contained, ie. there are no false negatives
+     */
+    @Test
+    public void mightContain_PutElements_ReturnsTrue() {
+        //prepare
+        BloomFilter<String> bloomFilter = new BloomFilter<>(1000, 0.01);
+
+        //act
+        for (int i = 0; i < 1000; i++)
+            bloomFilter.put("Test" + i);
+
+        //assert
+        for (int i = 0; i < 1000; i++)
+            assertTrue(bloomFilter.mightContain("Test" + i));
+    }
+
+    /**
+     * Test that the observed false positive rate stays close to the configured probability
+     */
+    @Test
+    public void mightContain_NeverPutElements_FalsePositiveRateWithinBound() {
+        //prepare
+        BloomFilter<String> bloomFilter = new BloomFilter<>(10000, 0.01);
+        for (int i = 0; i < 10000; i++)
+            bloomFilter.put("Test" + i);
+
+        //act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("Missing" + i))
+                falsePositives++;
+        }
+
+        //assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    /**
+     * Test that {@link com.charusmita.crdt.BloomFilter#clear()} forgets all elements
+     */
+    @Test
+    public void clear_PutElements_ReturnsFalse() {
+        //prepare
+        BloomFilter<String> bloomFilter = new BloomFilter<>(100, 0.01);
+        bloomFilter.put("Test1");
+
+        //act
+        bloomFilter.clear();
+
+        //assert
+        assertFalse(bloomFilter.mightContain("Test1"));
+    }
+
+    /**
+     * Test that invalid false positive probabilities are rejected
+     */
+    @Test
+    public void constructor_InvalidProbability_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<String>(100, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<String>(0, 0.01));
+    }
+}
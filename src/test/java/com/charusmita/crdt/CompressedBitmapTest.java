@@ -0,0 +1,87 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    /**
+     * Test that random adds and removes over sparse, dense and negative values give the same contents as a
+     * TreeSet, iterated in unsigned order
+     */
+    @Test
+    public void addRemove_RandomValues_SameAsTreeSet() {
+        //prepare
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> reference = new TreeSet<>(Integer::compareUnsigned);
+        Random random = new Random(5);
+
+        //act
+        for (int i = 0; i < 200000; i++) {
+            int value;
+            switch (random.nextInt(3)) {
+                case 0:
+                    value = random.nextInt(20000);
+                    break;
+                case 1:
+                    value = -random.nextInt(3000);
+                    break;
+                default:
+                    value = random.nextInt();
+            }
+            if (random.nextInt(4) == 0)
+                assertEquals(reference.remove(value), bitmap.remove(value));
+            else
+                assertEquals(reference.add(value), bitmap.add(value));
+        }
+
+        //assert
+        assertEquals(reference.size(), bitmap.cardinality());
+        List<Integer> iterated = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = bitmap.iterator();
+        while (iterator.hasNext()) {
+            iterated.add(iterator.nextInt());
+        }
+        assertEquals(new ArrayList<>(reference), iterated);
+        List<Integer> visited = new ArrayList<>();
+        bitmap.forEach(visited::add);
+        assertEquals(iterated, visited);
+        for (int value : reference) {
+            assertTrue(bitmap.contains(value));
+        }
+    }
+
+    /**
+     * Test that a full container is stored as a bitmap and goes back to a small array once emptied
+     */
+    @Test
+    public void sizeInBytes_DenseRange_SmallerThanOneArrayPerValue() {
+        //prepare
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        //act
+        for (int i = 0; i < 65536; i++) {
+            bitmap.add(i);
+        }
+        long denseBytes = bitmap.sizeInBytes();
+        CompressedBitmap copy = bitmap.copy();
+        for (int i = 10; i < 65536; i++) {
+            bitmap.remove(i);
+        }
+
+        //assert
+        assertTrue(denseBytes < 9000);
+        assertTrue(bitmap.sizeInBytes() < denseBytes);
+        assertEquals(10, bitmap.cardinality());
+        assertEquals(65536, copy.cardinality());
+        assertTrue(copy.contains(65535));
+        assertFalse(bitmap.contains(65535));
+    }
+}
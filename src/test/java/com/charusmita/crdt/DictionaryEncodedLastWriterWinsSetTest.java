@@ -0,0 +1,160 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionaryEncodedLastWriterWinsSetTest {
+
+    /**
+     * Test for newSet() operation on {@link com.charusmita.crdt.DictionaryEncodedLastWriterWinsSet}.
+     * The shared dictionary keeps its values
+     */
+    @Test
+    public void newSet_AddValues_ReturnsNewSet() {
+        //prepare
+        DictionaryEncodedLastWriterWinsSet<String> encodedSet = new DictionaryEncodedLastWriterWinsSet<>();
+
+        //act
+        encodedSet.add("Test1", 1);
+        DictionaryEncodedLastWriterWinsSet<String> expectedSet = encodedSet.newSet();
+
+        //assert
+        assertTrue(expectedSet.getAllElements().isEmpty());
+        assertEquals(1, expectedSet.getDictionary().size());
+    }
+
+    /**
+     * Test to add and remove elements with more and less recent timestamps
+     */
+    @Test
+    public void addAndRemove_DifferentTimestamps_KeepsMostRecentTimestamp() {
+        //prepare
+        DictionaryEncodedLastWriterWinsSet<String> encodedSet = new DictionaryEncodedLastWriterWinsSet<>();
+
+        //act & assert
+        assertEquals(1, encodedSet.add("Test1", 1));
+        assertEquals(4, encodedSet.add("Test1", 4));
+        assertEquals(-1, encodedSet.add("Test1", 2));
+        assertEquals(3, encodedSet.remove("Test1", 3));
+        assertEquals(-1, encodedSet.remove("Test1", 3));
+        assertTrue(encodedSet.exists("Test1"));
+        assertFalse(encodedSet.exists("Test2"));
+    }
+
+    /**
+     * Test to check elements existing only in AddSet and RemoveSet as well.
+     * Returns all elements whose timestamp of add is more recent than that of remove.
+     */
+    @Test
+    public void getAllElements_WithElementsOnlyInAddSet_ReturnsElements() {
+        //prepare
+        DictionaryEncodedLastWriterWinsSet<String> encodedSet = new DictionaryEncodedLastWriterWinsSet<>();
+        Set<String> actualSet = Stream.of("Test2", "Test4").collect(Collectors.toSet());
+
+        encodedSet.add("Test1", 1);
+        encodedSet.add("Test2", 3);
+        encodedSet.add("Test4", 6);
+        encodedSet.remove("Test3", 2);
+        encodedSet.remove("Test1", 5);
+
+        //act
+        Set<String> expectedSet = encodedSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+    }
+
+    /**
+     * Test that sets created with the same {@link com.charusmita.crdt.ElementDictionary} share one
+     * instance per element value and keep independent entries
+     */
+    @Test
+    public void add_SharedDictionary_StoresValueOnce() {
+        //prepare
+        ElementDictionary<String> dictionary = new ElementDictionary<>();
+        DictionaryEncodedLastWriterWinsSet<String> first = new DictionaryEncodedLastWriterWinsSet<>(dictionary);
+        DictionaryEncodedLastWriterWinsSet<String> second = new DictionaryEncodedLastWriterWinsSet<>(dictionary);
+
+        //act
+        first.add(new String("Test1"), 1);
+        second.add(new String("Test1"), 2);
+        second.remove(new String("Test2"), 1);
+
+        //assert
+        assertEquals(2, dictionary.size());
+        assertSame(first.getAllElements().iterator().next(), second.getAllElements().iterator().next());
+        assertEquals(Collections.singleton("Test1"), first.getAllElements());
+        assertEquals(0, dictionary.lookup("Test1"));
+        assertEquals(-1, dictionary.lookup("Test3"));
+    }
+
+    /**
+     * Test that a set only holding elements with high IDs, handed out for another set of the same dictionary,
+     * keeps the right timestamps of its own elements
+     */
+    @Test
+    public void add_HighIdsOfSharedDictionary_KeepsOwnEntries() {
+        //prepare
+        ElementDictionary<Integer> dictionary = new ElementDictionary<>();
+        DictionaryEncodedLastWriterWinsSet<Integer> largeSet = new DictionaryEncodedLastWriterWinsSet<>(dictionary);
+        DictionaryEncodedLastWriterWinsSet<Integer> smallSet = new DictionaryEncodedLastWriterWinsSet<>(dictionary);
+        for (int i = 0; i < 100000; i++) {
+            largeSet.add(i, 1);
+        }
+
+        //act
+        for (int i = 99990; i < 100010; i++) {
+            smallSet.add(i, 2);
+            smallSet.remove(i, i % 2 == 0 ? 1 : 3);
+        }
+
+        //assert
+        assertEquals(100000, largeSet.getAllElements().size());
+        assertEquals(10, smallSet.getAllElements().size());
+        assertTrue(smallSet.exists(99990));
+        assertFalse(smallSet.exists(99991));
+        assertFalse(smallSet.exists(5));
+        assertEquals(-1, smallSet.add(100000, 1));
+    }
+
+    /**
+     * Test that the reserved Integer.MIN_VALUE timestamp is rejected
+     */
+    @Test
+    public void add_MinValueTimestamp_ThrowsException() {
+        //prepare
+        DictionaryEncodedLastWriterWinsSet<String> encodedSet = new DictionaryEncodedLastWriterWinsSet<>();
+
+        //act & assert
+        assertThrows(IllegalArgumentException.class, () -> encodedSet.add("Test1", Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> encodedSet.remove("Test1", Integer.MIN_VALUE));
+    }
+
+    /**
+     * Test that the live count follows adds and removes, including removed-only elements
+     */
+    @Test
+    public void estimatedLiveCount_AddsAndRemoves_CountsLiveElements() {
+        //prepare
+        DictionaryEncodedLastWriterWinsSet<String> encodedSet = new DictionaryEncodedLastWriterWinsSet<>();
+
+        //act
+        encodedSet.add("Test1", 1);
+        encodedSet.add("Test2", 1);
+        encodedSet.remove("Test2", 2);
+        encodedSet.remove("Test3", 1);
+        encodedSet.add("Test2", 3);
+        encodedSet.add("Test4", 1);
+        encodedSet.remove("Test4", 5);
+
+        //assert
+        assertEquals(2, encodedSet.estimatedLiveCount());
+        assertEquals(encodedSet.getAllElements().size(), encodedSet.estimatedLiveCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LastWriterWinsMapTest {
+
+    /**
+     * Test for newMap() operation on {@link com.charusmita.crdt.LastWriterWinsMap}
+     */
+    @Test
+    public void newMap_PutValues_ReturnsNewMap() {
+        //prepare
+        LastWriterWinsMap<String, String> lastWriterWinsMap = new LastWriterWinsMap<>();
+        lastWriterWinsMap.put("Key1", "Value1", 1);
+
+        //act
+        LastWriterWinsMap<String, String> expectedMap = lastWriterWinsMap.newMap();
+
+        //assert
+        assertTrue(expectedMap.getAll().isEmpty());
+        assertEquals(-1, expectedMap.getTimestamp("Key1"));
+    }
+
+    /**
+     * Test that the put with the most recent timestamp wins, whatever the order of arrival
+     */
+    @Test
+    public void put_OutOfOrderWrites_KeepsMostRecentValue() {
+        //prepare
+        LastWriterWinsMap<String, String> lastWriterWinsMap = new LastWriterWinsMap<>();
+
+        //act
+        int first = lastWriterWinsMap.put("Key1", "Value2", 2);
+        int lessRecent = lastWriterWinsMap.put("Key1", "Value1", 1);
+        int sameTimestamp = lastWriterWinsMap.put("Key1", "Value0", 2);
+
+        //assert
+        assertEquals(2, first);
+        assertEquals(-1, lessRecent);
+        assertEquals(-1, sameTimestamp);
+        assertEquals("Value2", lastWriterWinsMap.get("Key1"));
+        assertEquals(2, lastWriterWinsMap.getTimestamp("Key1"));
+    }
+
+    /**
+     * Test that puts with the same timestamp applied in either order leave both maps with the greater value
+     */
+    @Test
+    public void put_SameTimestampInEitherOrder_Converges() {
+        //prepare
+        LastWriterWinsMap<String, String> firstMap = new LastWriterWinsMap<>();
+        LastWriterWinsMap<String, String> secondMap = new LastWriterWinsMap<>();
+
+        //act
+        firstMap.put("Key1", "Value1", 2);
+        int greaterValue = firstMap.put("Key1", "Value2", 2);
+        secondMap.put("Key1", "Value2", 2);
+        int lesserValue = secondMap.put("Key1", "Value1", 2);
+
+        //assert
+        assertEquals(2, greaterValue);
+        assertEquals(-1, lesserValue);
+        assertEquals(firstMap.getAll(), secondMap.getAll());
+        assertEquals("Value2", firstMap.get("Key1"));
+    }
+
+    /**
+     * Test that a remove hides the value, wins over a put with the same timestamp and keeps a less
+     * recent put arriving later from resurrecting the key
+     */
+    @Test
+    public void remove_PutAndRemoveTimestamps_ComparesTimestamps() {
+        //prepare
+        LastWriterWinsMap<String, String> lastWriterWinsMap = new LastWriterWinsMap<>();
+        lastWriterWinsMap.put("Key1", "Value1", 2);
+        lastWriterWinsMap.put("Key2", "Value2", 2);
+
+        //act
+        int sameTimestamp = lastWriterWinsMap.remove("Key1", 2);
+        int lessRecentPut = lastWriterWinsMap.put("Key1", "Value0", 1);
+        int lessRecentRemove = lastWriterWinsMap.remove("Key2", 1);
+        int removeFirst = lastWriterWinsMap.remove("Key3", 5);
+        int putAfterRemove = lastWriterWinsMap.put("Key3", "Value3", 4);
+
+        //assert
+        assertEquals(2, sameTimestamp);
+        assertEquals(-1, lessRecentPut);
+        assertEquals(-1, lessRecentRemove);
+        assertEquals(5, removeFirst);
+        assertEquals(-1, putAfterRemove);
+        assertFalse(lastWriterWinsMap.containsKey("Key1"));
+        assertNull(lastWriterWinsMap.get("Key1"));
+        assertEquals(Collections.singletonMap("Key2", "Value2"), lastWriterWinsMap.getAll());
+    }
+}
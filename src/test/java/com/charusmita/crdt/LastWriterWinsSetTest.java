@@ -3,6 +3,9 @@ package com.charusmita.crdt;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -263,4 +266,123 @@ public class LastWriterWinsSetTest {
         //assert
         assertEquals(expectedSet, Collections.emptySet());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to check {@link com.charusmita.crdt.Entry} element exists when the set is created with a
+     * {@link com.charusmita.crdt.BloomFilter}. Existing elements are still found and never added
+     * elements are rejected
+     */
+    @Test
+    public void exists_WithBloomFilter_ReturnsSameResultAsWithoutFilter() {
+        //prepare
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>(new BloomFilter<>(100, 0.01));
+
+        lastWriterWinsSet.add("Test1", 1);
+        lastWriterWinsSet.add("Test2", 3);
+        lastWriterWinsSet.remove("Test2", 2);
+
+        //act
+        boolean existing = lastWriterWinsSet.exists("Test2");
+        boolean nonexistent = lastWriterWinsSet.exists("Test3");
+
+        //assert
+        assertTrue(existing);
+        assertFalse(nonexistent);
+    }
+
+    /**
+     * Test that the {@link com.charusmita.crdt.MembershipFilter} is rebuilt from the entries already
+     * present in the Add set when the set is created over existing sets
+     */
+    @Test
+    public void constructor_WithExistingAddSetAndFilter_RebuildsFilter() {
+        //prepare
+        Set<Entry<String>> addSet = new HashSet<>(Collections.singleton(new Entry<>("Test1", 3)));
+        Set<Entry<String>> removeSet = new HashSet<>(Collections.singleton(new Entry<>("Test1", 2)));
+
+        //act
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>(addSet, removeSet,
+                new BloomFilter<>(100, 0.01));
+
+        //assert
+        assertTrue(lastWriterWinsSet.getFilter().mightContain("Test1"));
+        assertTrue(lastWriterWinsSet.exists("Test1"));
+    }
+
+    /**
+     * Test that elements added while the {@link com.charusmita.crdt.MembershipFilter} is rebuilt again and again
+     * all end up in the filter
+     */
+    @Test
+    public void rebuildFilter_ConcurrentAdds_KeepsEveryAddedElement() throws Exception {
+        //prepare
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>(new BloomFilter<>(2000, 0.01));
+        Thread adder = new Thread(() -> {
+            for (int i = 0; i < 500; i++)
+                lastWriterWinsSet.add("Test" + i, 1);
+        });
+
+        //act
+        adder.start();
+        while (adder.isAlive())
+            lastWriterWinsSet.rebuildFilter();
+        adder.join();
+
+        //assert
+        for (int i = 0; i < 500; i++)
+            assertTrue(lastWriterWinsSet.getFilter().mightContain("Test" + i));
+    }
+
+    /**
+     * Test to add a batch of elements where an element occurs several times. The duplicates are
+     * collapsed to the most recent timestamp
+     */
+    @Test
+    public void addAll_DuplicateElementsInBatch_KeepsMostRecentTimestamp() {
+        //prepare
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>();
+
+        //act
+        BatchResult<String> result = lastWriterWinsSet.addAll(new String[]{"Test1", "Test2", "Test1"},
+                new int[]{1, 2, 4});
+
+        //assert
+        assertEquals(2, lastWriterWinsSet.getAddSet().size());
+        assertEquals(Integer.valueOf(4), result.getAddOutcomes().get("Test1"));
+        assertEquals(Integer.valueOf(2), result.getAddOutcomes().get("Test2"));
+        assertEquals(2, result.getAppliedCount());
+        assertTrue(lastWriterWinsSet.getAddSet().stream()
+                .anyMatch(x -> x.getElement().equals("Test1") && x.getTimestamp() == 4));
+    }
+
+    /**
+     * Test to apply a batch of adds and removes over existing entries. Less recent timestamps are skipped
+     * and reported with -1, as for single element operations
+     */
+    @Test
+    public void applyBatch_ExistingEntries_ReturnsOutcomePerElement() {
+        //prepare
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>();
+        lastWriterWinsSet.add("Test1", 5);
+        lastWriterWinsSet.add("Test2", 1);
+        lastWriterWinsSet.remove("Test2", 2);
+        Map<String, Integer> adds = new HashMap<>();
+        adds.put("Test1", 3);
+        adds.put("Test2", 6);
+        Map<String, Integer> removes = Collections.singletonMap("Test1", 4);
+
+        //act
+        BatchResult<String> result = lastWriterWinsSet.applyBatch(adds, removes);
+
+        //assert
+        assertEquals(Integer.valueOf(-1), result.getAddOutcomes().get("Test1"));
+        assertEquals(Integer.valueOf(6), result.getAddOutcomes().get("Test2"));
+        assertEquals(Integer.valueOf(4), result.getRemoveOutcomes().get("Test1"));
+        assertEquals(2, result.getAppliedCount());
+        assertEquals(1, result.getSkippedCount());
+        assertEquals(2, lastWriterWinsSet.getAddSet().size());
+        assertEquals(Stream.of("Test1", "Test2").collect(Collectors.toSet()), lastWriterWinsSet.getAllElements());
+        assertTrue(lastWriterWinsSet.exists("Test1"));
+        assertTrue(lastWriterWinsSet.exists("Test2"));
+    }
+}
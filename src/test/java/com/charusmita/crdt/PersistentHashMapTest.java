@@ -0,0 +1,70 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentHashMapTest {
+
+    /**
+     * Test that put returns a new map and leaves the previous version untouched
+     */
+    @Test
+    public void put_NewKey_PreviousVersionUnchanged() {
+        //prepare
+        PersistentHashMap<String, Integer> first = PersistentHashMap.<String, Integer>empty().put("Test1", 1);
+
+        //act
+        PersistentHashMap<String, Integer> second = first.put("Test1", 2).put("Test2", 3);
+
+        //assert
+        assertEquals(1, first.size());
+        assertEquals(Integer.valueOf(1), first.get("Test1"));
+        assertNull(first.get("Test2"));
+        assertEquals(2, second.size());
+        assertEquals(Integer.valueOf(2), second.get("Test1"));
+        assertEquals(Integer.valueOf(3), second.get("Test2"));
+    }
+
+    /**
+     * Test that keys with the same hashCode ("Aa" and "BB") are both kept
+     */
+    @Test
+    public void put_CollidingKeys_KeepsBothKeys() {
+        //prepare
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+
+        //act
+        map = map.put("Aa", 1).put("BB", 2).put("Aa", 3).put("C", 4);
+
+        //assert
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(3), map.get("Aa"));
+        assertEquals(Integer.valueOf(2), map.get("BB"));
+        assertEquals(Integer.valueOf(4), map.get("C"));
+    }
+
+    /**
+     * Test that a large number of keys can be stored and iterated
+     */
+    @Test
+    public void forEach_ManyKeys_VisitsAllKeys() {
+        //prepare
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100000; i++)
+            map = map.put(i, i * 2);
+
+        //act
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+
+        //assert
+        assertEquals(100000, map.size());
+        assertEquals(100000, visited.size());
+        for (int i = 0; i < 100000; i++)
+            assertEquals(Integer.valueOf(i * 2), visited.get(i));
+    }
+}
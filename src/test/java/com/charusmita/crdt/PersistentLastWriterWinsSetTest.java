@@ -0,0 +1,144 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentLastWriterWinsSetTest {
+
+    /**
+     * Test for newSet() operation on {@link com.charusmita.crdt.PersistentLastWriterWinsSet}
+     */
+    @Test
+    public void newSet_AddValues_ReturnsNewSet() {
+        //prepare
+        PersistentLastWriterWinsSet<String> persistentSet = new PersistentLastWriterWinsSet<>();
+
+        //act
+        persistentSet.add("Test1", 1);
+        persistentSet.remove("Test1", 2);
+        PersistentLastWriterWinsSet<String> expectedSet = persistentSet.newSet();
+
+        //assert
+        assertTrue(expectedSet.getAddSet().isEmpty());
+        assertTrue(expectedSet.getRemoveSet().isEmpty());
+    }
+
+    /**
+     * Test to add elements with more and less recent timestamps. Only the most recent timestamp is kept
+     */
+    @Test
+    public void add_AddingEntriesWithDifferentTimestamps_KeepsMostRecentTimestamp() {
+        //prepare
+        PersistentLastWriterWinsSet<String> persistentSet = new PersistentLastWriterWinsSet<>();
+
+        //act
+        int first = persistentSet.add("Test1", 1);
+        int moreRecent = persistentSet.add("Test1", 4);
+        int lessRecent = persistentSet.add("Test1", 2);
+
+        //assert
+        assertEquals(1, first);
+        assertEquals(4, moreRecent);
+        assertEquals(-1, lessRecent);
+        assertEquals(1, persistentSet.getAddSet().size());
+        assertEquals(Integer.valueOf(4), persistentSet.getAddSet().get("Test1"));
+    }
+
+    /**
+     * Test to check element exists in the calling set or not, for more and less recent removes
+     */
+    @Test
+    public void exists_AddAndRemoveTimestamps_ComparesTimestamps() {
+        //prepare
+        PersistentLastWriterWinsSet<String> persistentSet = new PersistentLastWriterWinsSet<>();
+
+        persistentSet.add("Test1", 2);
+        persistentSet.remove("Test1", 3);
+        persistentSet.add("Test2", 3);
+        persistentSet.remove("Test2", 2);
+
+        //act & assert
+        assertFalse(persistentSet.exists("Test1"));
+        assertTrue(persistentSet.exists("Test2"));
+        assertFalse(persistentSet.exists("Test3"));
+    }
+
+    /**
+     * Test to check elements existing only in AddSet and RemoveSet as well.
+     * Returns all elements whose timestamp of add is more recent than that of remove.
+     */
+    @Test
+    public void getAllElements_WithElementsOnlyInAddSet_ReturnsElements() {
+        //prepare
+        PersistentLastWriterWinsSet<String> persistentSet = new PersistentLastWriterWinsSet<>();
+        Set<String> actualSet = Stream.of("Test2", "Test4").collect(Collectors.toSet());
+
+        persistentSet.add("Test1", 1);
+        persistentSet.add("Test2", 3);
+        persistentSet.add("Test4", 6);
+        persistentSet.remove("Test3", 2);
+        persistentSet.remove("Test1", 5);
+
+        //act
+        Set<String> expectedSet = persistentSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+    }
+
+    /**
+     * Test that a snapshot is not affected by writes to the calling set after it was taken
+     */
+    @Test
+    public void snapshot_WritesAfterSnapshot_NotVisibleInSnapshot() {
+        //prepare
+        PersistentLastWriterWinsSet<String> persistentSet = new PersistentLastWriterWinsSet<>();
+        persistentSet.add("Test1", 1);
+
+        //act
+        PersistentLastWriterWinsSet<String> snapshot = persistentSet.snapshot();
+        persistentSet.add("Test2", 2);
+        persistentSet.remove("Test1", 3);
+        persistentSet.newSet();
+
+        //assert
+        assertEquals(Collections.singleton("Test1"), snapshot.getAllElements());
+        assertEquals(Collections.emptySet(), persistentSet.getAllElements());
+        assertTrue(snapshot.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add("Test3", 4));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("Test1", 4));
+        assertThrows(UnsupportedOperationException.class, snapshot::newSet);
+    }
+
+    /**
+     * Test that concurrent writers do not lose any update
+     */
+    @Test
+    public void add_ConcurrentWriters_KeepsAllElements() throws InterruptedException {
+        //prepare
+        PersistentLastWriterWinsSet<Integer> persistentSet = new PersistentLastWriterWinsSet<>();
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int offset = w * 10000;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++)
+                    persistentSet.add(offset + i, 1);
+            });
+        }
+
+        //act
+        for (Thread writer : writers)
+            writer.start();
+        for (Thread writer : writers)
+            writer.join();
+
+        //assert
+        assertEquals(40000, persistentSet.getAllElements().size());
+    }
+}
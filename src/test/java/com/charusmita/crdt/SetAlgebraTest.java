@@ -0,0 +1,131 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SetAlgebraTest {
+
+    /**
+     * Test that intersection, union and difference of different set implementations give the same results as
+     * the same operations on the materialized elements
+     */
+    @Test
+    public void intersectionUnionDifference_MixedImplementations_SameAsMaterializedSets() {
+        //prepare
+        PersistentLastWriterWinsSet<Integer> persistentSet = new PersistentLastWriterWinsSet<>();
+        ShardedLastWriterWinsSet<Integer> shardedSet = new ShardedLastWriterWinsSet<>();
+        DictionaryEncodedLastWriterWinsSet<Integer> dictionarySet = new DictionaryEncodedLastWriterWinsSet<>();
+        LastWriterWinsSet<Integer> lastWriterWinsSet = new LastWriterWinsSet<>();
+        fill(persistentSet, 1, 5000);
+        fill(shardedSet, 2, 2000);
+        fill(dictionarySet, 3, 5000);
+        fill(lastWriterWinsSet, 4, 300);
+
+        Set<Integer> expectedIntersection = new HashSet<>(persistentSet.getAllElements());
+        expectedIntersection.retainAll(shardedSet.getAllElements());
+        expectedIntersection.retainAll(dictionarySet.getAllElements());
+        Set<Integer> expectedUnion = new HashSet<>(persistentSet.getAllElements());
+        expectedUnion.addAll(shardedSet.getAllElements());
+        expectedUnion.addAll(lastWriterWinsSet.getAllElements());
+        Set<Integer> expectedDifference = new HashSet<>(dictionarySet.getAllElements());
+        expectedDifference.removeAll(shardedSet.getAllElements());
+        expectedDifference.removeAll(lastWriterWinsSet.getAllElements());
+
+        //act
+        Set<Integer> intersection = SetAlgebra.intersection(persistentSet, shardedSet, dictionarySet);
+        Set<Integer> union = SetAlgebra.union(persistentSet, shardedSet, lastWriterWinsSet);
+        Set<Integer> difference = SetAlgebra.difference(dictionarySet, shardedSet, lastWriterWinsSet);
+
+        //assert
+        assertFalse(expectedIntersection.isEmpty());
+        assertEquals(expectedIntersection, intersection);
+        assertEquals(expectedIntersection.size(), SetAlgebra.intersectionCount(persistentSet, shardedSet, dictionarySet));
+        assertEquals(expectedUnion, union);
+        assertEquals(expectedUnion.size(), SetAlgebra.unionCount(persistentSet, shardedSet, lastWriterWinsSet));
+        assertEquals(expectedDifference, difference);
+        assertEquals(expectedDifference.size(), SetAlgebra.differenceCount(dictionarySet, shardedSet, lastWriterWinsSet));
+    }
+
+    /**
+     * Test that operations on bitmap sets only, which run on the bitmaps, give the same results as the same
+     * operations on the materialized elements
+     */
+    @Test
+    public void intersectionUnionDifference_BitmapSets_SameAsMaterializedSets() {
+        //prepare
+        BitmapLastWriterWinsSet first = new BitmapLastWriterWinsSet();
+        BitmapLastWriterWinsSet second = new BitmapLastWriterWinsSet();
+        for (int i = 0; i < 200000; i++) {
+            first.add(i, 1);
+        }
+        Random random = new Random(8);
+        for (int i = 0; i < 20000; i++) {
+            second.add(random.nextInt(300000) - 50000, 1);
+        }
+
+        Set<Integer> expectedIntersection = new HashSet<>(first.getAllElements());
+        expectedIntersection.retainAll(second.getAllElements());
+        Set<Integer> expectedUnion = new HashSet<>(first.getAllElements());
+        expectedUnion.addAll(second.getAllElements());
+        Set<Integer> expectedDifference = new HashSet<>(first.getAllElements());
+        expectedDifference.removeAll(second.getAllElements());
+
+        //act
+        Set<Integer> intersection = SetAlgebra.intersection(first, second);
+        Set<Integer> union = SetAlgebra.union(first, second);
+        Set<Integer> difference = SetAlgebra.difference(first, second);
+
+        //assert
+        assertEquals(expectedIntersection, intersection);
+        assertEquals(expectedUnion, union);
+        assertEquals(expectedDifference, difference);
+        assertEquals(expectedDifference.size(), SetAlgebra.differenceCount(first, second));
+    }
+
+    /**
+     * Test that a tiered set with spilled elements takes part as a {@link com.charusmita.crdt.LiveView}, without
+     * being compacted by the probes
+     */
+    @Test
+    public void intersectionDifference_TieredSet_SameAsMaterializedSets() throws Exception {
+        //prepare
+        PersistentLastWriterWinsSet<Integer> persistentSet = new PersistentLastWriterWinsSet<>();
+        try (TieredLastWriterWinsSet<Integer> tieredSet = new TieredLastWriterWinsSet<>(100)) {
+            fill(persistentSet, 5, 3000);
+            fill(tieredSet, 6, 3000);
+            int segmentCount = tieredSet.getSegmentCount();
+
+            Set<Integer> expectedIntersection = new HashSet<>(persistentSet.getAllElements());
+            expectedIntersection.retainAll(tieredSet.getAllElements());
+            Set<Integer> expectedDifference = new HashSet<>(persistentSet.getAllElements());
+            expectedDifference.removeAll(tieredSet.getAllElements());
+
+            //act
+            Set<Integer> intersection = SetAlgebra.intersection(persistentSet, tieredSet);
+            Set<Integer> difference = SetAlgebra.difference(persistentSet, tieredSet);
+
+            //assert
+            assertTrue(segmentCount > 0);
+            assertEquals(expectedIntersection, intersection);
+            assertEquals(expectedDifference, difference);
+            assertEquals(segmentCount, tieredSet.getSegmentCount());
+        }
+    }
+
+    private static void fill(ZSet<Integer> set, long seed, int count) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            int element = random.nextInt(3000);
+            int timestamp = random.nextInt(100);
+            if (random.nextInt(4) == 0)
+                set.remove(element, timestamp);
+            else
+                set.add(element, timestamp);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedLastWriterWinsSetTest {
+
+    /**
+     * Test to check elements existing only in AddSet and RemoveSet as well.
+     * Returns all elements whose timestamp of add is more recent than that of remove.
+     */
+    @Test
+    public void getAllElements_WithElementsOnlyInAddSet_ReturnsElements() {
+        //prepare
+        ShardedLastWriterWinsSet<String> shardedSet = new ShardedLastWriterWinsSet<>();
+        Set<String> actualSet = Stream.of("Test2", "Test4").collect(Collectors.toSet());
+
+        shardedSet.add("Test1", 1);
+        shardedSet.add("Test2", 3);
+        shardedSet.add("Test4", 6);
+        shardedSet.remove("Test3", 2);
+        shardedSet.remove("Test1", 5);
+
+        //act
+        Set<String> expectedSet = shardedSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+        assertEquals(-1, shardedSet.add("Test2", 2));
+        assertFalse(shardedSet.exists("Test1"));
+    }
+
+    /**
+     * Test that a parallel bulk load with duplicate elements gives the same result as applying the
+     * entries one by one
+     */
+    @Test
+    public void bulkLoad_RandomEntries_SameAsSequentialApply() {
+        //prepare
+        ShardedLastWriterWinsSet<Integer> shardedSet = new ShardedLastWriterWinsSet<>(16, new ForkJoinPool(4));
+        PersistentLastWriterWinsSet<Integer> reference = new PersistentLastWriterWinsSet<>();
+        List<Entry<Integer>> adds = new ArrayList<>();
+        List<Entry<Integer>> removes = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            Entry<Integer> entry = new Entry<>(random.nextInt(20000), random.nextInt(1000));
+            if (random.nextInt(3) == 0) {
+                removes.add(entry);
+                reference.remove(entry.getElement(), entry.getTimestamp());
+            } else {
+                adds.add(entry);
+                reference.add(entry.getElement(), entry.getTimestamp());
+            }
+        }
+
+        //act
+        shardedSet.bulkLoad(adds, removes);
+
+        //assert
+        assertEquals(reference.getAllElements(), shardedSet.getAllElements());
+        for (int element = 0; element < 20000; element += 7)
+            assertEquals(reference.exists(element), shardedSet.exists(element));
+    }
+
+    /**
+     * Test to merge a {@link com.charusmita.crdt.LastWriterWinsSet} and sharded sets with the same and a
+     * different number of shards
+     */
+    @Test
+    public void merge_OtherSets_KeepsMostRecentTimestamps() {
+        //prepare
+        LastWriterWinsSet<String> lastWriterWinsSet = new LastWriterWinsSet<>();
+        lastWriterWinsSet.add("Test1", 1);
+        lastWriterWinsSet.add("Test2", 3);
+        ShardedLastWriterWinsSet<String> sameShards = new ShardedLastWriterWinsSet<>(8, ForkJoinPool.commonPool());
+        sameShards.remove("Test1", 2);
+        sameShards.remove("Test2", 2);
+        ShardedLastWriterWinsSet<String> otherShards = new ShardedLastWriterWinsSet<>(2, ForkJoinPool.commonPool());
+        otherShards.add("Test1", 4);
+        otherShards.add("Test3", 1);
+        ShardedLastWriterWinsSet<String> shardedSet = new ShardedLastWriterWinsSet<>(8, ForkJoinPool.commonPool());
+
+        //act
+        shardedSet.merge(lastWriterWinsSet);
+        shardedSet.merge(sameShards);
+        shardedSet.merge(otherShards);
+
+        //assert
+        assertEquals(Stream.of("Test1", "Test2", "Test3").collect(Collectors.toSet()), shardedSet.getAllElements());
+        assertTrue(shardedSet.exists("Test1"));
+        assertTrue(shardedSet.exists("Test2"));
+        assertEquals(-1, shardedSet.add("Test1", 4));
+    }
+
+    /**
+     * Test that the reserved Integer.MIN_VALUE timestamp is rejected and a bulk load with it loads nothing
+     */
+    @Test
+    public void add_MinValueTimestamp_ThrowsException() {
+        //prepare
+        ShardedLastWriterWinsSet<String> shardedSet = new ShardedLastWriterWinsSet<>(4, new ForkJoinPool(2));
+        List<Entry<String>> adds = new ArrayList<>();
+        adds.add(new Entry<>("Test1", 1));
+        adds.add(new Entry<>("Test2", Integer.MIN_VALUE));
+
+        //act & assert
+        assertThrows(IllegalArgumentException.class, () -> shardedSet.add("Test1", Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> shardedSet.remove("Test1", Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> shardedSet.bulkLoad(adds, new ArrayList<>()));
+        assertTrue(shardedSet.getAllElements().isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package com.charusmita.crdt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TieredLastWriterWinsSetTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test for newSet() operation on {@link com.charusmita.crdt.TieredLastWriterWinsSet}.
+     * The segment files are deleted
+     */
+    @Test
+    public void newSet_SpilledValues_ReturnsNewSet() throws Exception {
+        //prepare
+        TieredLastWriterWinsSet<String> tieredSet = new TieredLastWriterWinsSet<>(directory, 2, 2, 4, 4, 8);
+        for (int i = 0; i < 10; i++)
+            tieredSet.add("Test" + i, i);
+
+        //act
+        TieredLastWriterWinsSet<String> expectedSet = tieredSet.newSet();
+
+        //assert
+        assertTrue(expectedSet.getAllElements().isEmpty());
+        assertEquals(0, expectedSet.getSegmentCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Test that elements evicted to disk are read by exists() without paging them back, and keep their timestamps
+     */
+    @Test
+    public void exists_EvictedElements_ReadsFromDiskWithoutPagingBack() {
+        //prepare
+        TieredLastWriterWinsSet<String> tieredSet = new TieredLastWriterWinsSet<>(directory, 2, 2, 4, 4, 8);
+        tieredSet.add("Test1", 3);
+        tieredSet.remove("Test1", 2);
+        tieredSet.add("Test2", 1);
+        tieredSet.remove("Test2", 2);
+        for (int i = 10; i < 20; i++)
+            tieredSet.add("Test" + i, i);
+
+        //act & assert
+        int segmentCount = tieredSet.getSegmentCount();
+        assertTrue(segmentCount > 0);
+        assertTrue(tieredSet.exists("Test1"));
+        assertFalse(tieredSet.exists("Test2"));
+        assertFalse(tieredSet.exists("Test3"));
+        assertEquals(segmentCount, tieredSet.getSegmentCount());
+        assertEquals(-1, tieredSet.add("Test2", 1));
+        assertEquals(5, tieredSet.add("Test2", 5));
+        assertTrue(tieredSet.getHotSize() <= 2);
+    }
+
+    /**
+     * Test to check elements existing only in AddSet and RemoveSet as well.
+     * Returns all elements whose timestamp of add is more recent than that of remove.
+     */
+    @Test
+    public void getAllElements_WithElementsOnlyInAddSet_ReturnsElements() {
+        //prepare
+        TieredLastWriterWinsSet<String> tieredSet = new TieredLastWriterWinsSet<>(directory, 1, 1, 2, 2, 2);
+        Set<String> actualSet = Stream.of("Test2", "Test4").collect(Collectors.toSet());
+
+        tieredSet.add("Test1", 1);
+        tieredSet.add("Test2", 3);
+        tieredSet.add("Test4", 6);
+        tieredSet.remove("Test3", 2);
+        tieredSet.remove("Test1", 5);
+
+        //act
+        Set<String> expectedSet = tieredSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+    }
+
+    /**
+     * Test that random operations give the same result as {@link com.charusmita.crdt.PersistentLastWriterWinsSet}
+     * while the hot tier stays bounded and segments get merged
+     */
+    @Test
+    public void getAllElements_RandomOperations_SameAsInMemorySet() {
+        //prepare
+        TieredLastWriterWinsSet<Integer> tieredSet = new TieredLastWriterWinsSet<>(directory, 50, 20, 8, 4, 3);
+        PersistentLastWriterWinsSet<Integer> reference = new PersistentLastWriterWinsSet<>();
+        Random random = new Random(7);
+
+        //act
+        for (int i = 0; i < 5000; i++) {
+            int element = random.nextInt(500);
+            int timestamp = random.nextInt(1000);
+            if (random.nextBoolean())
+                assertEquals(reference.add(element, timestamp), tieredSet.add(element, timestamp));
+            else
+                assertEquals(reference.remove(element, timestamp), tieredSet.remove(element, timestamp));
+        }
+
+        //assert
+        assertTrue(tieredSet.getHotSize() <= 50);
+        assertTrue(tieredSet.getSegmentCount() <= 3);
+        for (int element = 0; element < 500; element++)
+            assertEquals(reference.exists(element), tieredSet.exists(element));
+        int segmentCount = tieredSet.getSegmentCount();
+        assertEquals(reference.getAllElements(), tieredSet.getAllElements());
+        assertEquals(segmentCount, tieredSet.getSegmentCount());
+    }
+
+    /**
+     * Test that close() deletes the temporary directory created for the segments
+     */
+    @Test
+    public void close_TemporaryDirectory_DeletesDirectory() throws Exception {
+        //prepare
+        TieredLastWriterWinsSet<String> tieredSet = new TieredLastWriterWinsSet<>(2);
+        for (int i = 0; i < 10; i++)
+            tieredSet.add("Test" + i, i);
+
+        //act
+        tieredSet.close();
+
+        //assert
+        assertFalse(Files.exists(tieredSet.getDirectory()));
+    }
+
+    /**
+     * Test that the reserved Integer.MIN_VALUE timestamp is rejected
+     */
+    @Test
+    public void add_MinValueTimestamp_ThrowsException() {
+        //prepare
+        TieredLastWriterWinsSet<String> tieredSet = new TieredLastWriterWinsSet<>(directory, 2, 2, 4, 4, 8);
+
+        //act & assert
+        assertThrows(IllegalArgumentException.class, () -> tieredSet.add("Test1", Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> tieredSet.remove("Test1", Integer.MIN_VALUE));
+        assertTrue(tieredSet.getAllElements().isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package com.charusmita.crdt.redis;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElementCodecTest {
+
+    /**
+     * Test that built-in, registered and fallback types are decoded to equal elements
+     */
+    @Test
+    public void decode_EncodedElements_ReturnsEqualElements() throws IOException {
+        //prepare
+        ElementCodec codec = new ElementCodec().register(ElementCodec.FIRST_USER_TAG, UUID.class,
+                new ElementSerializer<UUID>() {
+                    @Override
+                    public void write(UUID value, ByteBuf out) {
+                        out.writeLong(value.getMostSignificantBits()).writeLong(value.getLeastSignificantBits());
+                    }
+
+                    @Override
+                    public UUID read(ByteBuf in) {
+                        return new UUID(in.readLong(), in.readLong());
+                    }
+                });
+
+        //act & assert
+        for (Object element : Arrays.asList("Test1", "", "ünïcödé", 42, -7L, 1.5d,
+                UUID.randomUUID(), Arrays.asList("Test1", "Test2"))) {
+            ByteBuf buf = codec.getValueEncoder().encode(element);
+            try {
+                assertEquals(element, codec.getValueDecoder().decode(buf, null));
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * Test that equal elements have the same bytes and that the encoding is compact
+     */
+    @Test
+    public void encodeToBytes_EqualElements_ReturnsSameBytes() throws IOException {
+        //prepare
+        ElementCodec codec = new ElementCodec();
+
+        //act
+        byte[] first = codec.encodeToBytes(new String("Test1"));
+        byte[] second = codec.encodeToBytes(new String("Test1"));
+
+        //assert
+        assertArrayEquals(first, second);
+        assertEquals(6, first.length);
+        assertEquals(5, codec.encodeToBytes(42).length);
+    }
+
+    /**
+     * Test that a tag can not be registered twice
+     */
+    @Test
+    public void register_DuplicateTag_ThrowsException() {
+        //prepare
+        ElementCodec codec = new ElementCodec().register(20, UUID.class, null);
+
+        //act & assert
+        assertThrows(IllegalArgumentException.class, () -> codec.register(20, Long.class, null));
+        assertThrows(IllegalArgumentException.class, () -> codec.register(3, Long.class, null));
+    }
+}
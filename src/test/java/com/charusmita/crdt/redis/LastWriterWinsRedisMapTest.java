@@ -0,0 +1,117 @@
+package com.charusmita.crdt.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Needs a local Redis server, like {@link LastWriterWinsRedisSetTest}
+ */
+public class LastWriterWinsRedisMapTest {
+
+    private RedissonClient redisson;
+    private LastWriterWinsRedisMap<String, String> lastWriterWinsRedisMap;
+
+    @BeforeEach
+    public void setUp() {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://127.0.0.1:6379");
+        redisson = Redisson.create(config);
+        lastWriterWinsRedisMap = new LastWriterWinsRedisMap<String, String>(redisson, "simpleMap",
+                new ElementCodec()).newMap();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisson.shutdown();
+    }
+
+    /**
+     * Test that the put with the most recent timestamp wins, whatever the order of arrival
+     */
+    @Test
+    public void put_OutOfOrderWrites_KeepsMostRecentValue() {
+        //act
+        int first = lastWriterWinsRedisMap.put("Key1", "Value2", 2);
+        int lessRecent = lastWriterWinsRedisMap.put("Key1", "Value1", 1);
+        int moreRecent = lastWriterWinsRedisMap.put("Key1", "Value3", 3);
+
+        //assert
+        assertEquals(2, first);
+        assertEquals(-1, lessRecent);
+        assertEquals(3, moreRecent);
+        assertEquals("Value3", lastWriterWinsRedisMap.get("Key1"));
+        assertEquals(3, lastWriterWinsRedisMap.getTimestamp("Key1"));
+    }
+
+    /**
+     * Test that puts with the same timestamp applied in either order leave both maps with the same value
+     */
+    @Test
+    public void put_SameTimestampInEitherOrder_Converges() {
+        //prepare
+        LastWriterWinsRedisMap<String, String> otherMap = new LastWriterWinsRedisMap<String, String>(redisson,
+                "otherMap", new ElementCodec()).newMap();
+
+        try {
+            //act
+            lastWriterWinsRedisMap.put("Key1", "Value1", 2);
+            lastWriterWinsRedisMap.put("Key1", "Value2", 2);
+            otherMap.put("Key1", "Value2", 2);
+            otherMap.put("Key1", "Value1", 2);
+
+            //assert
+            assertEquals(lastWriterWinsRedisMap.getAll(), otherMap.getAll());
+            assertEquals(Collections.singletonMap("Key1", "Value2"), otherMap.getAll());
+            assertEquals(-1, otherMap.put("Key1", "Value2", 2));
+        } finally {
+            otherMap.newMap();
+        }
+    }
+
+    /**
+     * Test that a remove wins over a put with the same timestamp, whichever arrives first
+     */
+    @Test
+    public void put_AfterRemoveWithSameTimestamp_KeepsKeyRemoved() {
+        //prepare
+        lastWriterWinsRedisMap.remove("Key1", 2);
+
+        //act
+        int sameTimestamp = lastWriterWinsRedisMap.put("Key1", "Value1", 2);
+
+        //assert
+        assertEquals(-1, sameTimestamp);
+        assertFalse(lastWriterWinsRedisMap.containsKey("Key1"));
+    }
+
+    /**
+     * Test that a remove hides the value and wins over a put with the same timestamp
+     */
+    @Test
+    public void remove_PutAndRemoveTimestamps_ComparesTimestamps() {
+        //prepare
+        lastWriterWinsRedisMap.put("Key1", "Value1", 2);
+        lastWriterWinsRedisMap.put("Key2", "Value2", 2);
+
+        //act
+        int sameTimestamp = lastWriterWinsRedisMap.remove("Key1", 2);
+        int lessRecentPut = lastWriterWinsRedisMap.put("Key1", "Value0", 1);
+        int lessRecentRemove = lastWriterWinsRedisMap.remove("Key2", 1);
+
+        //assert
+        assertEquals(2, sameTimestamp);
+        assertEquals(-1, lessRecentPut);
+        assertEquals(-1, lessRecentRemove);
+        assertFalse(lastWriterWinsRedisMap.containsKey("Key1"));
+        assertEquals(Collections.singletonMap("Key2", "Value2"), lastWriterWinsRedisMap.getAll());
+    }
+}
@@ -2,6 +2,10 @@ package com.charusmita.crdt.redis;
 
 import com.charusmita.crdt.Entry;
 import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.RedissonScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
 
 import java.util.Collections;
 import java.util.Set;
@@ -259,4 +263,39 @@ class LastWriterWinsRedisSetTest {
         //assert
         assertEquals(expectedSet, Collections.emptySet());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that rebuilding a shared Redis filter replaces its content, so that elements of a cleared set are
+     * rejected while the current elements of ZA are still found
+     */
+    @Test
+    public void rebuildFilter_RedisBloomFilterAfterNewSet_ContainsOnlyAddSetElements() {
+        //prepare
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://127.0.0.1:6379");
+        RedissonClient redisson = Redisson.create(config);
+        try {
+            RedissonScoredSortedSet<String> addSet =
+                    (RedissonScoredSortedSet<String>) redisson.<String>getScoredSortedSet("filteredAdd");
+            RedissonScoredSortedSet<String> removeSet =
+                    (RedissonScoredSortedSet<String>) redisson.<String>getScoredSortedSet("filteredRemove");
+            RedisBloomFilter<String> filter = new RedisBloomFilter<>(redisson, "filteredBloom", 1000, 0.001);
+            LastWriterWinsRedisSet<String> filteredSet = new LastWriterWinsRedisSet<>(addSet, removeSet, filter)
+                    .newSet();
+            filteredSet.add("Test1", 1);
+            filteredSet.newSet();
+            filteredSet.getAddSet().add(2, "Test2");
+
+            //act
+            filteredSet.rebuildFilter();
+
+            //assert
+            assertTrue(filter.mightContain("Test2"));
+            assertFalse(filter.mightContain("Test1"));
+            assertFalse(redisson.getKeys().getKeysByPattern("filteredBloom:rebuild:*").iterator().hasNext());
+        } finally {
+            redisson.shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.charusmita.crdt.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Needs a local Redis server, like {@link LastWriterWinsRedisSetTest}
+ */
+public class RedisSetAlgebraTest {
+
+    private RedissonClient redisson;
+    private RedisSetAlgebra setAlgebra;
+    private LastWriterWinsRedisSet<String> users;
+    private LastWriterWinsRedisSet<String> entitled;
+    private LastWriterWinsRedisSet<String> banned;
+
+    @BeforeEach
+    public void setUp() {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://127.0.0.1:6379");
+        redisson = Redisson.create(config);
+        setAlgebra = new RedisSetAlgebra(redisson);
+        users = new LastWriterWinsRedisSet<String>(redisson, "usersAdd", "usersRemove", new ElementCodec()).newSet();
+        entitled = new LastWriterWinsRedisSet<String>(redisson, "entitledAdd", "entitledRemove", new ElementCodec()).newSet();
+        banned = new LastWriterWinsRedisSet<String>(redisson, "bannedAdd", "bannedRemove", new ElementCodec()).newSet();
+
+        users.add("User1", 1);
+        users.add("User2", 1);
+        users.add("User3", 1);
+        users.add("User4", 5);
+        users.remove("User4", 6);
+        entitled.add("User2", 2);
+        entitled.add("User3", 2);
+        entitled.add("User4", 2);
+        entitled.add("User5", 2);
+        entitled.remove("User3", 1);
+        banned.add("User3", 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisson.shutdown();
+    }
+
+    /**
+     * Test that the intersection only keeps elements live in every set, removed elements being excluded
+     */
+    @Test
+    public void intersection_LiveAndRemovedElements_ReturnsElementsLiveInAllSets() {
+        //act
+        Set<String> intersection = setAlgebra.intersection(users, entitled);
+
+        //assert
+        assertEquals(Stream.of("User2", "User3").collect(Collectors.toSet()), intersection);
+        assertEquals(2, setAlgebra.intersectionCount(users, entitled));
+    }
+
+    /**
+     * Test that the union counts every element once and the difference removes elements live in the other sets
+     */
+    @Test
+    public void unionDifference_LiveAndRemovedElements_ReturnsExpectedElements() {
+        //act
+        Set<String> union = setAlgebra.union(users, entitled, banned);
+        Set<String> difference = setAlgebra.difference(entitled, users, banned);
+
+        //assert
+        assertEquals(Stream.of("User1", "User2", "User3", "User4", "User5").collect(Collectors.toSet()), union);
+        assertEquals(5, setAlgebra.unionCount(users, entitled, banned));
+        assertEquals(Stream.of("User4", "User5").collect(Collectors.toSet()), difference);
+        assertEquals(2, setAlgebra.differenceCount(entitled, users, banned));
+    }
+
+    /**
+     * Test that results are the same when every script call only reads a page of two members, and that the
+     * scripts are loaded again after Redis flushed them
+     */
+    @Test
+    public void intersectionUnionDifference_SmallPagesAndFlushedScripts_ReturnsExpectedElements() {
+        //prepare
+        RedisSetAlgebra pagedAlgebra = new RedisSetAlgebra(redisson, 2);
+        assertEquals(2, pagedAlgebra.intersectionCount(users, entitled));
+
+        //act
+        redisson.getScript().scriptFlush();
+        Set<String> intersection = pagedAlgebra.intersection(users, entitled);
+        Set<String> union = pagedAlgebra.union(users, entitled, banned);
+        Set<String> difference = pagedAlgebra.difference(entitled, users, banned);
+
+        //assert
+        assertEquals(Stream.of("User2", "User3").collect(Collectors.toSet()), intersection);
+        assertEquals(Stream.of("User1", "User2", "User3", "User4", "User5").collect(Collectors.toSet()), union);
+        assertEquals(5, pagedAlgebra.unionCount(users, entitled, banned));
+        assertEquals(Stream.of("User4", "User5").collect(Collectors.toSet()), difference);
+        assertEquals(2, pagedAlgebra.differenceCount(entitled, users, banned));
+    }
+}
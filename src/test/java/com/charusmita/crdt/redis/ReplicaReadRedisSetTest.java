@@ -0,0 +1,176 @@
+package com.charusmita.crdt.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Needs a local Redis server, like {@link LastWriterWinsRedisSetTest}. The tests reading from replicas also need two
+ * replicas of it and are skipped otherwise:
+ * <pre>
+ * redis-server --port 6380 --replicaof 127.0.0.1 6379
+ * redis-server --port 6381 --replicaof 127.0.0.1 6379
+ * </pre>
+ */
+public class ReplicaReadRedisSetTest {
+
+    private final List<RedissonClient> clients = new ArrayList<>();
+    private RedissonClient master;
+
+    @BeforeEach
+    public void setUp() {
+        master = connect("redis://127.0.0.1:6379", 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clients.forEach(RedissonClient::shutdown);
+    }
+
+    /**
+     * Test that the writes of the client are visible to its reads right away, whatever the replication lag
+     */
+    @Test
+    public void exists_RightAfterWrite_ReadsOwnWrites() {
+        //prepare
+        List<RedissonClient> replicas = connectReplicas();
+        ReplicaReadOptions options = new ReplicaReadOptions();
+        options.setMaxStalenessMillis(-1);
+        try (ReplicaReadRedisSet<String> replicaSet = new ReplicaReadRedisSet<String>(master, replicas,
+                "replicaAdd", "replicaRemove", new ElementCodec(), options).newSet()) {
+
+            //act
+            List<Boolean> existing = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                replicaSet.add("Test" + i, 2);
+                replicaSet.remove("Test" + i, 1);
+                existing.add(replicaSet.exists("Test" + i));
+                assertTrue(replicaSet.getAllElements().contains("Test" + i));
+            }
+
+            //assert
+            assertFalse(existing.contains(false));
+        }
+    }
+
+    /**
+     * Test that once the replicas caught up, reads are spread over the replicas and the master serves none
+     */
+    @Test
+    public void exists_ReplicasCaughtUp_SpreadsReadsOverReplicas() throws InterruptedException {
+        //prepare
+        List<RedissonClient> replicas = connectReplicas();
+        ReplicaReadOptions options = new ReplicaReadOptions();
+        options.setHeartbeatIntervalMillis(20);
+        try (ReplicaReadRedisSet<String> replicaSet = new ReplicaReadRedisSet<String>(master, replicas,
+                "replicaAdd", "replicaRemove", new ElementCodec(), options).newSet()) {
+            replicaSet.add("Test1", 2);
+            replicaSet.remove("Test1", 1);
+            for (int i = 0; i < 100 && replicaSet.getPendingWriteCount() > 0; i++) {
+                Thread.sleep(20);
+            }
+            long masterReads = replicaSet.getMasterReadCount();
+
+            //act
+            for (int i = 0; i < 100; i++) {
+                assertTrue(replicaSet.exists("Test1"));
+            }
+
+            //assert
+            assertEquals(0, replicaSet.getPendingWriteCount());
+            assertEquals(masterReads, replicaSet.getMasterReadCount());
+            long[] replicaReads = replicaSet.getReplicaReadCounts();
+            assertTrue(replicaReads[0] > 0);
+            assertTrue(replicaReads[1] > 0);
+            assertEquals(100, replicaReads[0] + replicaReads[1]);
+        }
+    }
+
+    /**
+     * Test that beyond the maximum number of tracked writes the writes are forgotten, and the client still reads
+     * its own writes because reads go to the master until a replica has caught up
+     */
+    @Test
+    public void exists_MorePendingWritesThanMaximum_BoundsTrackingAndReadsOwnWrites() {
+        //prepare
+        List<RedissonClient> replicas = connectReplicas();
+        ReplicaReadOptions options = new ReplicaReadOptions();
+        options.setMaxStalenessMillis(-1);
+        options.setMaxPendingWrites(10);
+        try (ReplicaReadRedisSet<String> replicaSet = new ReplicaReadRedisSet<String>(master, replicas,
+                "replicaAdd", "replicaRemove", new ElementCodec(), options).newSet()) {
+
+            //act
+            List<Boolean> existing = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                replicaSet.add("Test" + i, 2);
+                replicaSet.remove("Test" + i, 1);
+                existing.add(replicaSet.exists("Test" + i));
+                assertTrue(replicaSet.getPendingWriteCount() <= 10);
+            }
+
+            //assert
+            assertFalse(existing.contains(false));
+            assertTrue(replicaSet.getAllElements().contains("Test49"));
+        }
+    }
+
+    /**
+     * Test that a replica which does not receive the heartbeat is never read from. A database the master does not
+     * replicate to stands for a replica which stopped replicating.
+     */
+    @Test
+    public void exists_StaleReplica_ReadsFromMaster() throws InterruptedException {
+        //prepare
+        RedissonClient staleReplica = connect("redis://127.0.0.1:6379", 1);
+        ReplicaReadOptions options = new ReplicaReadOptions();
+        options.setHeartbeatIntervalMillis(20);
+        options.setMaxStalenessMillis(200);
+        try (ReplicaReadRedisSet<String> replicaSet = new ReplicaReadRedisSet<String>(master,
+                Collections.singletonList(staleReplica), "replicaAdd", "replicaRemove", new ElementCodec(),
+                options).newSet()) {
+            replicaSet.add("Test1", 2);
+            replicaSet.remove("Test1", 1);
+            Thread.sleep(100);
+
+            //act
+            boolean exists = replicaSet.exists("Test1");
+
+            //assert
+            assertTrue(exists);
+            assertEquals(1, replicaSet.getMasterReadCount());
+            assertEquals(0, replicaSet.getReplicaReadCounts()[0]);
+        }
+    }
+
+    private List<RedissonClient> connectReplicas() {
+        List<RedissonClient> replicas = new ArrayList<>();
+        try {
+            replicas.add(connect("redis://127.0.0.1:6380", 0));
+            replicas.add(connect("redis://127.0.0.1:6381", 0));
+        } catch (RuntimeException e) {
+            assumeTrue(false, "Redis replicas on ports 6380 and 6381 are not running");
+        }
+        return replicas;
+    }
+
+    private RedissonClient connect(String address, int database) {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress(address)
+                .setDatabase(database);
+        RedissonClient client = Redisson.create(config);
+        clients.add(client);
+        return client;
+    }
+}
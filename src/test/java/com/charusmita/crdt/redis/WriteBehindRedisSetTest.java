@@ -0,0 +1,162 @@
+package com.charusmita.crdt.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.RedissonScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Needs a local Redis server, like {@link LastWriterWinsRedisSetTest}
+ */
+public class WriteBehindRedisSetTest {
+
+    private RedissonClient redisson;
+    private WriteBehindRedisSet<String> writeBehindSet;
+
+    @BeforeEach
+    public void setUp() {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://127.0.0.1:6379");
+        redisson = Redisson.create(config);
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setMaxBufferedElements(100);
+        options.setFlushIntervalMillis(60000);
+        LastWriterWinsRedisSet<String> set = new LastWriterWinsRedisSet<>(redisson, "writeBehindAdd",
+                "writeBehindRemove", new ElementCodec());
+        writeBehindSet = new WriteBehindRedisSet<>(redisson, set, options).newSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehindSet.newSet().close();
+        redisson.shutdown();
+    }
+
+    /**
+     * Test that buffered writes are visible to reads before they are flushed
+     */
+    @Test
+    public void exists_BufferedWrites_ReturnsBufferedState() {
+        //prepare
+        writeBehindSet.add("Test1", 3);
+        writeBehindSet.remove("Test1", 2);
+
+        //act
+        boolean expected = writeBehindSet.exists("Test1");
+
+        //assert
+        assertTrue(expected);
+        assertTrue(writeBehindSet.getSet().getAddSet().isEmpty());
+    }
+
+    /**
+     * Test that repeated writes of an element collapse to the most recent timestamp, and that the flush
+     * does not lower a more recent score already stored in Redis
+     */
+    @Test
+    public void flush_RepeatedWrites_StoresMostRecentTimestamp() {
+        //prepare
+        writeBehindSet.getSet().getAddSet().add(10, "Test2");
+        writeBehindSet.add("Test1", 1);
+        writeBehindSet.add("Test1", 4);
+        writeBehindSet.add("Test1", 2);
+        writeBehindSet.add("Test2", 5);
+
+        //act
+        writeBehindSet.flush();
+
+        //assert
+        assertEquals(0, writeBehindSet.getBufferedCount());
+        assertEquals(2, writeBehindSet.getSet().getAddSet().size());
+        assertEquals(4.0, writeBehindSet.getSet().getAddSet().getScore("Test1"));
+        assertEquals(10.0, writeBehindSet.getSet().getAddSet().getScore("Test2"));
+    }
+
+    /**
+     * Test that getAllElements() combines buffered and stored entries
+     */
+    @Test
+    public void getAllElements_BufferedAndFlushedWrites_ReturnsElements() {
+        //prepare
+        Set<String> actualSet = Stream.of("Test2", "Test4").collect(Collectors.toSet());
+        writeBehindSet.add("Test1", 1);
+        writeBehindSet.add("Test2", 3);
+        writeBehindSet.flush();
+        writeBehindSet.add("Test4", 6);
+        writeBehindSet.remove("Test3", 2);
+        writeBehindSet.remove("Test1", 5);
+
+        //act
+        Set<String> expectedSet = writeBehindSet.getAllElements();
+
+        //assert
+        assertEquals(expectedSet, actualSet);
+    }
+
+    /**
+     * Test that adds flushed to a set with a {@link RedisBloomFilter} are put into the filter, so that the set
+     * itself finds them
+     */
+    @Test
+    public void flush_SetWithFilter_PutsFlushedAddsIntoFilter() {
+        //prepare
+        RedissonScoredSortedSet<String> addSet =
+                (RedissonScoredSortedSet<String>) redisson.<String>getScoredSortedSet("writeBehindFilteredAdd");
+        RedissonScoredSortedSet<String> removeSet =
+                (RedissonScoredSortedSet<String>) redisson.<String>getScoredSortedSet("writeBehindFilteredRemove");
+        RedisBloomFilter<String> filter = new RedisBloomFilter<>(redisson, "writeBehindBloom", 1000, 0.001);
+        LastWriterWinsRedisSet<String> filteredSet = new LastWriterWinsRedisSet<>(addSet, removeSet, filter)
+                .newSet();
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setFlushIntervalMillis(60000);
+        try (WriteBehindRedisSet<String> filteredWriteBehindSet =
+                     new WriteBehindRedisSet<>(redisson, filteredSet, options)) {
+            filteredWriteBehindSet.add("Test1", 2);
+            filteredWriteBehindSet.remove("Test1", 1);
+
+            //act
+            filteredWriteBehindSet.flush();
+
+            //assert
+            assertTrue(filter.mightContain("Test1"));
+            assertTrue(filteredSet.exists("Test1"));
+        } finally {
+            filteredSet.newSet();
+        }
+    }
+
+    /**
+     * Test that newSet() discards the writes of a failed flush instead of letting them be merged back and
+     * flushed into the cleared sets. A string under the key of ZA makes the flush fail, and is deleted once the
+     * writes were merged back into the buffer.
+     */
+    @Test
+    public void newSet_AfterFailedFlush_DiscardsWrites() {
+        //prepare
+        redisson.getBucket("writeBehindAdd").set("not a sorted set");
+        try {
+            writeBehindSet.add("Test1", 1);
+            assertThrows(RuntimeException.class, () -> writeBehindSet.flush());
+        } finally {
+            redisson.getBucket("writeBehindAdd").delete();
+        }
+
+        //act
+        writeBehindSet.newSet();
+        writeBehindSet.flush();
+
+        //assert
+        assertEquals(0, writeBehindSet.getBufferedCount());
+        assertTrue(writeBehindSet.getAllElements().isEmpty());
+    }
+}
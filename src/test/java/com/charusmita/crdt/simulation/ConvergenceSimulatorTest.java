@@ -0,0 +1,55 @@
+package com.charusmita.crdt.simulation;
+
+import com.charusmita.crdt.LastWriterWinsSet;
+import com.charusmita.crdt.PersistentLastWriterWinsSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConvergenceSimulatorTest {
+
+    /**
+     * Test that replicas of {@link com.charusmita.crdt.LastWriterWinsSet} converge under clock skew,
+     * delayed and reordered messages, without intermediate sync rounds
+     */
+    @Test
+    public void run_LastWriterWinsSetWithoutSync_Converges() {
+        //prepare
+        SimulationConfig config = new SimulationConfig();
+        config.setReplicas(4);
+        config.setTicks(50);
+        config.setKeySpace(100);
+        config.setSyncInterval(0);
+
+        //act
+        SimulationReport report = new ConvergenceSimulator<>(config, LastWriterWinsSet<String>::new,
+                key -> "element-" + key).run();
+
+        //assert
+        assertTrue(report.isConverged());
+        assertEquals(4 * 50 * 10, report.getLocalOps());
+        assertEquals(3 * report.getLocalOps(), report.getRemoteOps());
+        assertTrue(report.getBytesExchanged() > 0);
+    }
+
+    /**
+     * Test that replicas of {@link com.charusmita.crdt.PersistentLastWriterWinsSet} converge with
+     * periodic sync rounds
+     */
+    @Test
+    public void run_PersistentLastWriterWinsSetWithSync_Converges() {
+        //prepare
+        SimulationConfig config = new SimulationConfig();
+        config.setReplicas(3);
+        config.setTicks(100);
+        config.setSyncInterval(25);
+
+        //act
+        SimulationReport report = new ConvergenceSimulator<>(config, PersistentLastWriterWinsSet<Integer>::new,
+                key -> key).run();
+
+        //assert
+        assertTrue(report.isConverged());
+        assertEquals(0, report.getConvergenceTicks());
+    }
+}